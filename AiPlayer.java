@@ -0,0 +1,74 @@
+package tetris;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The AiPlayer class chooses where to put each piece at one of several difficulty levels, using the ranked
+ * placements from the shared PlacementCache. A hard player always takes the best placement, while easier
+ * ones pick randomly among the few best. The chosen placement can be turned into the inputs that get
+ * the piece there, so an AiPlayer can play any TetrisEngine - it plays the games on the TournamentWall,
+ * and most of the pieces in the DifferentialFuzzer's input sequences.
+ */
+public class AiPlayer {
+
+    /**
+     * The difficulty levels, each with the number of best placements the player picks from.
+     */
+    public enum Difficulty {
+        EASY(6),
+        MEDIUM(3),
+        HARD(1);
+
+        private int choices;
+
+        Difficulty(int choices) {
+            this.choices = choices;
+        }
+    }
+
+    private Difficulty difficulty;
+    private Random random;
+    private PlacementCache cache;
+
+    public AiPlayer(Difficulty difficulty, Random random) {
+        this.difficulty = difficulty;
+        this.random = random;
+        this.cache = PlacementCache.SHARED;
+    }
+
+    /**
+     * Method below chooses a placement for the piece (palette index passed in as a parameter) on the board,
+     * or returns null if the piece can't be placed at all.
+     */
+    public Placement choosePlacement(byte[] board, byte colorIndex) {
+        List<Placement> placements = this.cache.getPlacements(board, colorIndex);
+        if (placements.isEmpty()) {
+            return null;
+        }
+        return placements.get(this.random.nextInt(Math.min(this.difficulty.choices, placements.size())));
+    }
+
+    /**
+     * Method below returns the inputs (see the TetrisEngine interface) moving a freshly spawned piece to the
+     * placement passed in as a parameter: the moves down it needs before it can rotate, its rotations, then
+     * one move per column, then a drop. They're meant to be applied right after the piece is spawned, without
+     * ticks in between.
+     */
+    public static int[] inputsFor(Placement placement) {
+        int shift = placement.getShift();
+        int[] inputs = new int[placement.getDescent() + placement.getRotations() + Math.abs(shift) + 1];
+        int i = 0;
+        for (int d = 0; d < placement.getDescent(); d++) {
+            inputs[i++] = TetrisEngine.DOWN;
+        }
+        for (int r = 0; r < placement.getRotations(); r++) {
+            inputs[i++] = TetrisEngine.ROTATE;
+        }
+        for (int c = 0; c < Math.abs(shift); c++) {
+            inputs[i++] = (shift < 0) ? TetrisEngine.LEFT : TetrisEngine.RIGHT;
+        }
+        inputs[i] = TetrisEngine.DROP;
+        return inputs;
+    }
+}
@@ -1,9 +1,17 @@
 package tetris;
 
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.Scene;
+import javafx.scene.layout.BorderPane;
+import javafx.stage.Screen;
 import javafx.stage.Stage;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 /**
  * This is the main class where your Tetris game will start.
  * The main method of this application calls launch, a JavaFX method
@@ -15,17 +23,127 @@ import javafx.stage.Stage;
  * This App class makes the Tetris game appear by instantiating the PaneOrganizer class
  * responsible for the game's GUI. This class also instantiates Scene, associates
  * it with the root BorderPane, and adds the scene to the stage, thus letting it appear.
+ * To make the window appear as quickly as possible, the stage is shown with an empty root first, and
+ * the PaneOrganizer (and with it the board) is only built once the first pulse has laid out and synced
+ * that empty scene for painting. Once the first frame with the board has been drawn, a background thread
+ * plays a few simulated games so that the engine's code is compiled by the time the game speeds up.
+ * The StartupTimer records how long each of these phases takes.
+ * When started with a --wall=N parameter, it shows a TournamentWall of N games played by AiPlayers instead.
  */
 
 public class App extends Application {
+    private PaneOrganizer organizer;
 
     @Override
     public void start(Stage stage) {
         // Create top-level object, set up the scene, and show the stage here.
-        PaneOrganizer organizer = new PaneOrganizer();
-        stage.setScene(new Scene(organizer.getRoot(), Constants.SCENE_WIDTH, Constants.SCENE_HEIGHT));
+        String wall = this.getParameters().getNamed().get("wall");
+        if (wall != null) {
+            this.showWall(stage, Integer.parseInt(wall));
+            return;
+        }
+        StartupTimer.mark(StartupTimer.Phase.START_CALLED);
+        Scene scene = new Scene(new BorderPane(), Constants.SCENE_WIDTH, Constants.SCENE_HEIGHT);
+        stage.setScene(scene);
         stage.setTitle("tetris");
         stage.show();
+        StartupTimer.mark(StartupTimer.Phase.STAGE_SHOWN);
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                Platform.runLater(() -> App.this.buildGame(scene));
+            }
+        });
+    }
+
+    /**
+     * Helper method below shows a TournamentWall of the number of games passed in as a parameter. Every game
+     * gets its own seed and an AiPlayer (difficulties take turns, so the wall shows all of them). The window
+     * is made as big as the wall, unless that doesn't fit on the screen - the wall then scales itself down.
+     */
+    private void showWall(Stage stage, int numberOfGames) {
+        Random random = new Random();
+        AiPlayer.Difficulty[] difficulties = AiPlayer.Difficulty.values();
+        List<CompactEngine> engines = new ArrayList<>();
+        List<AiPlayer> players = new ArrayList<>();
+        for (int i = 0; i < numberOfGames; i++) {
+            CompactEngine engine = new CompactEngine();
+            engine.reset(random.nextLong());
+            engines.add(engine);
+            players.add(new AiPlayer(difficulties[i % difficulties.length], new Random(random.nextLong())));
+        }
+        TournamentWall tournamentWall = new TournamentWall(engines, players);
+        Rectangle2D bounds = Screen.getPrimary().getVisualBounds();
+        double scale = Math.min(1, Math.min(bounds.getWidth() / tournamentWall.getWidth(),
+                bounds.getHeight() / tournamentWall.getHeight()));
+        stage.setScene(new Scene(tournamentWall.getRoot(), tournamentWall.getWidth() * scale,
+                tournamentWall.getHeight() * scale));
+        stage.setTitle("tetris - tournament wall");
+        stage.show();
+    }
+
+    /**
+     * Helper method below builds the actual game once the stage is already showing: it creates the
+     * PaneOrganizer, puts its root into the scene, and moves the focus to the game so that key presses
+     * reach it. It also registers a pulse listener that marks the first frame drawn with the board, and
+     * only then starts warming up the engine, so that the warm-up never competes with showing the game.
+     */
+    private void buildGame(Scene scene) {
+        this.organizer = new PaneOrganizer();
+        scene.setRoot(this.organizer.getRoot());
+        this.organizer.focusGame();
+        StartupTimer.mark(StartupTimer.Phase.BOARD_BUILT);
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                StartupTimer.mark(StartupTimer.Phase.FIRST_FRAME);
+                scene.removePostLayoutPulseListener(this);
+                prewarmEngine();
+            }
+        });
+    }
+
+    /**
+     * Method below is called by JavaFX on the FX thread when the window is closed, and closes the game's
+     * analytics (if the game has been built by then).
+     */
+    @Override
+    public void stop() {
+        if (this.organizer != null) {
+            this.organizer.closeGame();
+        }
+    }
+
+    /**
+     * Helper method below starts a background thread playing simulated games (through the ReferenceEngine,
+     * so on the real Game and Piece classes). It never touches anything shown on screen - it only makes sure
+     * the code of the engine's hot paths has been run enough times to be compiled before the player needs it.
+     * Its low priority is only a hint (on Linux, the JVM ignores thread priorities by default), which is why
+     * it's started after the first frame rather than during startup. The inputs are the DifferentialFuzzer's,
+     * which play long games that clear lines, so only a few games (each a new Game with its own board and
+     * history) have to be created for all of the inputs.
+     */
+    private static void prewarmEngine() {
+        Thread prewarm = new Thread(() -> {
+            ReferenceEngine engine = new ReferenceEngine();
+            Random random = new Random();
+            int inputs = 0;
+            for (int game = 0; game < Constants.PREWARM_GAMES && inputs < Constants.PREWARM_INPUTS; game++) {
+                long seed = random.nextLong();
+                engine.reset(seed);
+                for (int input : DifferentialFuzzer.randomInputs(seed, Constants.PREWARM_INPUTS - inputs)) {
+                    if (engine.isOver()) {
+                        break;
+                    }
+                    engine.apply(input);
+                    inputs++;
+                }
+            }
+        }, "engine-prewarm");
+        prewarm.setDaemon(true);
+        prewarm.setPriority(Thread.MIN_PRIORITY);
+        prewarm.start();
     }
 
     /*
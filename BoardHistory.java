@@ -0,0 +1,82 @@
+package tetris;
+
+/**
+ * The BoardHistory class is a ring of BoardSnapshots - one for every piece placement - used for undoing
+ * and rewinding the game in practice mode. It's contained by the Game class, which records a new snapshot
+ * every time a piece is locked. Once the ring is full (its capacity is defined in the Constants class),
+ * the oldest snapshot is overwritten, so the memory used by the history never grows past that bound.
+ */
+public class BoardHistory {
+    private BoardSnapshot[] snapshots;
+    private int newest;
+    private int size;
+
+    /**
+     * Constructor below creates the (initially empty) array of snapshots with the capacity passed in as
+     * a parameter.
+     */
+    public BoardHistory(int capacity) {
+        this.snapshots = new BoardSnapshot[capacity];
+        this.newest = -1;
+        this.size = 0;
+    }
+
+    /**
+     * Method below captures the current state of the board passed in as a parameter (reusing unchanged
+     * rows of the latest snapshot), together with the piece that has just been placed and the game's
+     * counters, and stores it as the newest entry of the ring, overwriting the oldest one if the ring
+     * is already full.
+     */
+    public BoardSnapshot record(byte[] board, byte placedPiece, int linesCleared, int level, int tick) {
+        BoardSnapshot snapshot = BoardSnapshot.capture(board, this.latest(), placedPiece, linesCleared, level, tick);
+        this.newest = (this.newest + 1) % this.snapshots.length;
+        this.snapshots[this.newest] = snapshot;
+        if (this.size < this.snapshots.length) {
+            this.size++;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Method below steps back the number of placements passed in as a parameter and returns the snapshot
+     * the board should be restored to. Snapshots newer than that one are dropped (so that the next
+     * placement continues from the restored board). The very first snapshot is never dropped; if there
+     * aren't enough snapshots to go back that far, the history rewinds as far as it can. Returns null if
+     * there is nothing to rewind to.
+     */
+    public BoardSnapshot rewind(int placements) {
+        int steps = Math.min(placements, this.size - 1);
+        if (steps <= 0) {
+            return null;
+        }
+        for (int i = 0; i < steps; i++) {
+            this.snapshots[this.newest] = null;
+            this.newest = (this.newest - 1 + this.snapshots.length) % this.snapshots.length;
+            this.size--;
+        }
+        return this.latest();
+    }
+
+    /**
+     * Method below returns the snapshot recorded the number of placements passed in as a parameter before
+     * the newest one (0 is the newest one), or null if the history doesn't go back that far.
+     */
+    public BoardSnapshot get(int placementsBack) {
+        if (placementsBack < 0 || placementsBack >= this.size) {
+            return null;
+        }
+        return this.snapshots[(this.newest - placementsBack + this.snapshots.length) % this.snapshots.length];
+    }
+
+    /**
+     * Accessor methods below return the newest snapshot (null if the history is empty) and the number of
+     * snapshots currently stored.
+     */
+    public BoardSnapshot latest() {
+        return this.get(0);
+    }
+
+    public int size() {
+        return this.size;
+    }
+}
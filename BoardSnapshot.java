@@ -0,0 +1,112 @@
+package tetris;
+
+/**
+ * The BoardSnapshot class is an immutable picture of the board (its palette indices, see the Palette class)
+ * at one point in time - right after a piece has been locked and the filled lines cleared. It's used by the
+ * BoardHistory class so that the game can be rewound. Rows are stored as separate arrays, and a row that
+ * didn't change since the previous snapshot is shared with it rather than copied - this way, a new snapshot
+ * only costs as much memory as the rows that the last placement actually changed.
+ * Along with the board, a snapshot remembers the piece whose placement produced it and the game's counters
+ * (lines cleared, level, and tick) at that moment, so that rewinding can give that piece back and put the
+ * counters back as well.
+ */
+public class BoardSnapshot {
+    private final byte[][] rows;
+    private final byte placedPiece;
+    private final int linesCleared;
+    private final int level;
+    private final int tick;
+
+    /**
+     * The constructor is private - snapshots are only created through the capture method below, which
+     * decides which rows can be reused from the previous snapshot.
+     */
+    private BoardSnapshot(byte[][] rows, byte placedPiece, int linesCleared, int level, int tick) {
+        this.rows = rows;
+        this.placedPiece = placedPiece;
+        this.linesCleared = linesCleared;
+        this.level = level;
+        this.tick = tick;
+    }
+
+    /**
+     * Method below creates a new snapshot of the board passed in as a parameter (stored row after row,
+     * Constants.BOARD_COLUMNS squares each). It loops through all rows of the board, and if a row holds the
+     * same indices as the same row of the previous snapshot (passed in as a parameter, can be null for the
+     * first snapshot of a game), that row's array is reused. Otherwise, a copy of the row is made. The palette
+     * index of the piece that has just been placed (Palette.EMPTY for the first snapshot) and the game's
+     * counters are stored as they are.
+     */
+    public static BoardSnapshot capture(byte[] board, BoardSnapshot previous, byte placedPiece,
+                                        int linesCleared, int level, int tick) {
+        byte[][] rows = new byte[Constants.BOARD_ROWS][];
+        for (int i = 0; i < Constants.BOARD_ROWS; i++) {
+            int start = i * Constants.BOARD_COLUMNS;
+            if (previous != null && previous.rowMatches(i, board, start)) {
+                rows[i] = previous.rows[i];
+            } else {
+                rows[i] = new byte[Constants.BOARD_COLUMNS];
+                System.arraycopy(board, start, rows[i], 0, Constants.BOARD_COLUMNS);
+            }
+        }
+        return new BoardSnapshot(rows, placedPiece, linesCleared, level, tick);
+    }
+
+    /**
+     * Helper method below checks whether a row of the board (starting at the index passed in as
+     * a parameter) holds exactly the same indices as the row of this snapshot with the same number.
+     */
+    private boolean rowMatches(int row, byte[] board, int start) {
+        byte[] stored = this.rows[row];
+        for (int j = 0; j < stored.length; j++) {
+            if (stored[j] != board[start + j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method below writes this snapshot back into the board passed in as a parameter. Rows that are shared
+     * with the snapshot the board currently matches (passed in as a parameter as well) are skipped entirely.
+     */
+    public void restore(byte[] board, BoardSnapshot current) {
+        for (int i = 0; i < this.rows.length; i++) {
+            if (current == null || current.rows[i] != this.rows[i]) {
+                System.arraycopy(this.rows[i], 0, board, i * Constants.BOARD_COLUMNS, Constants.BOARD_COLUMNS);
+            }
+        }
+    }
+
+    /**
+     * Accessor methods below return the palette index stored for a particular square, and check whether
+     * a row is shared (the very same array) with another snapshot.
+     */
+    public byte getColorIndex(int row, int column) {
+        return this.rows[row][column];
+    }
+
+    public boolean sharesRow(BoardSnapshot other, int row) {
+        return other != null && this.rows[row] == other.rows[row];
+    }
+
+    /**
+     * Accessor methods below return the palette index of the piece whose placement produced this snapshot,
+     * and the game's counters right after that placement.
+     */
+    public byte getPlacedPiece() {
+        return this.placedPiece;
+    }
+
+    public int getLinesCleared() {
+        return this.linesCleared;
+    }
+
+    public int getLevel() {
+        return this.level;
+    }
+
+    public int getTick() {
+        return this.tick;
+    }
+}
@@ -10,6 +10,8 @@ import javafx.scene.shape.Rectangle;
  * or of a piece (comprised of four BoardSquares).
  * It is contained both by the Piece class (where the 1D Array is created) and by the
  * Game class (2D Array - board, no null spaces, filled ), and is associated with the gamePane.
+ * BoardSquares only show the board - what's actually on the board is stored by the Game as palette
+ * indices, and the color of a square is set from the current Theme whenever the board is drawn.
  *
  */
 public class BoardSquare {
@@ -86,19 +88,6 @@ public class BoardSquare {
         return this.color;
     }
 
-    /**
-     * This boolean method is called within the Game's "isRowFull" method and the "hasGameEnded" method.
-     * Depending on whether the square on which the method is called is black or not (based on the
-     * instance variable), it returns an appropriate value.
-     */
-    public boolean isBlack() {
-        if (this.color == Color.BLACK) {
-            return true;
-        } else {
-            return false;
-        }
-    }
-
     /**
      * Methods below respectively add or remove a square from the main gamePane - addToPane is used when the
      * board is generated, while removeFromPane is called once a piece stops moving after it collides with an already
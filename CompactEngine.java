@@ -0,0 +1,238 @@
+package tetris;
+
+import java.util.Random;
+
+/**
+ * The CompactEngine class plays by exactly the same rules as the Game and Piece classes, but without any
+ * JavaFX objects: the board is the same array of palette indices, and the falling piece is just the rows
+ * and columns of its four squares. That makes it much faster to simulate, and the DifferentialFuzzer
+ * checks that it never behaves differently from the ReferenceEngine.
+ * After every placement, the engine also captures a BoardSnapshot (sharing unchanged rows with the previous
+ * one, like the Game's history does), so that the TournamentWall can tell which rows it has to redraw.
+ * Only the latest snapshot is kept, and the engine doesn't count lines or levels, so those are left at 0.
+ */
+public class CompactEngine implements TetrisEngine {
+    private static final int[][][] COORDS = {Constants.I_PIECE_COORDS, Constants.J_PIECE_COORDS,
+            Constants.T_PIECE_COORDS, Constants.Z_PIECE_COORDS, Constants.S_PIECE_COORDS,
+            Constants.O_PIECE_COORDS, Constants.L_PIECE_COORDS};
+    private static final byte[] COLOR_INDICES = {Palette.I_PIECE, Palette.J_PIECE, Palette.T_PIECE,
+            Palette.Z_PIECE, Palette.S_PIECE, Palette.O_PIECE, Palette.L_PIECE};
+
+    private byte[] board;
+    private int[] cells;
+    private byte colorIndex;
+    private Random random;
+    private boolean isOver;
+    private BoardSnapshot snapshot;
+
+    /**
+     * Method below returns the coordinates (from the Constants class) of the piece with the palette index
+     * passed in as a parameter.
+     */
+    static int[][] coordsOf(byte colorIndex) {
+        for (int i = 0; i < COLOR_INDICES.length; i++) {
+            if (COLOR_INDICES[i] == colorIndex) {
+                return COORDS[i];
+            }
+        }
+        throw new IllegalArgumentException("Not a piece: " + colorIndex);
+    }
+
+    /**
+     * Constructor below creates the board and piece arrays once - reset only overwrites them.
+     */
+    public CompactEngine() {
+        this.board = new byte[Constants.BOARD_ROWS * Constants.BOARD_COLUMNS];
+        this.cells = new int[8];
+    }
+
+    @Override
+    public void reset(long seed) {
+        this.random = new Random(seed);
+        this.isOver = false;
+        for (int i = 0; i < Constants.BOARD_ROWS; i++) {
+            for (int j = 0; j < Constants.BOARD_COLUMNS; j++) {
+                boolean isBorder = (i == 0) || (i == Constants.BOARD_ROWS - 1) || (j == 0) || (j == Constants.BOARD_COLUMNS - 1);
+                this.board[i * Constants.BOARD_COLUMNS + j] = isBorder ? Palette.BORDER : Palette.EMPTY;
+            }
+        }
+        this.snapshot = BoardSnapshot.capture(this.board, null, Palette.EMPTY, 0, 0, 0);
+        this.spawnPiece();
+    }
+
+    @Override
+    public void apply(int input) {
+        switch (input) {
+            case TICK:
+                this.tick();
+                break;
+            case LEFT:
+                this.move(0, -1);
+                break;
+            case RIGHT:
+                this.move(0, 1);
+                break;
+            case DOWN:
+                this.move(1, 0);
+                break;
+            case DROP:
+                while (this.canMove(1, 0)) {
+                    this.move(1, 0);
+                }
+                break;
+            default:
+                this.rotate();
+                break;
+        }
+    }
+
+    /**
+     * Method below does what Game.update does: checks whether the game has ended, moves the piece down,
+     * and if it can't move any further, locks it, clears full lines, and spawns a new piece unless the
+     * game has ended.
+     */
+    private void tick() {
+        this.checkOver();
+        this.move(1, 0);
+        if (!this.canMove(1, 0)) {
+            for (int k = 0; k < 8; k += 2) {
+                this.board[this.cells[k] * Constants.BOARD_COLUMNS + this.cells[k + 1]] = this.colorIndex;
+            }
+            this.clearLines();
+            this.snapshot = BoardSnapshot.capture(this.board, this.snapshot, this.colorIndex, 0, 0, 0);
+            if (!this.checkOver()) {
+                this.spawnPiece();
+            }
+        }
+    }
+
+    /**
+     * Helper method below chooses the next piece the same way Game.spawnPiece does, and places its squares
+     * the same way Piece.arrangeSquares does (column 5 and row 1 plus the piece's coordinates).
+     */
+    private void spawnPiece() {
+        int type = this.random.nextInt(7);
+        int[][] coords = COORDS[type];
+        this.colorIndex = COLOR_INDICES[type];
+        for (int i = 0; i < 4; i++) {
+            this.cells[2 * i] = 1 + coords[i][0] / Constants.SQUARE_WIDTH;
+            this.cells[2 * i + 1] = 5 + coords[i][1] / Constants.SQUARE_WIDTH;
+        }
+    }
+
+    private boolean checkOver() {
+        for (int j = 1; j < Constants.BOARD_COLUMNS - 1; j++) {
+            if (this.board[Constants.BOARD_COLUMNS + j] != Palette.EMPTY) {
+                this.isOver = true;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean canMove(int rowChange, int columnChange) {
+        for (int k = 0; k < 8; k += 2) {
+            if (this.board[(this.cells[k] + rowChange) * Constants.BOARD_COLUMNS + this.cells[k + 1] + columnChange] != Palette.EMPTY) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void move(int rowChange, int columnChange) {
+        if (this.canMove(rowChange, columnChange)) {
+            for (int k = 0; k < 8; k += 2) {
+                this.cells[k] += rowChange;
+                this.cells[k + 1] += columnChange;
+            }
+        }
+    }
+
+    /**
+     * Method below rotates the piece around its first square, exactly like Piece.rotate (in rows and
+     * columns instead of pixels), unless it's an O piece or a square would end up on the border, outside
+     * the board, or on a filled square.
+     */
+    private void rotate() {
+        if (this.colorIndex == Palette.O_PIECE) {
+            return;
+        }
+        int centerRow = this.cells[0];
+        int centerColumn = this.cells[1];
+        for (int k = 0; k < 8; k += 2) {
+            int newRow = centerRow + centerColumn - this.cells[k + 1];
+            int newColumn = centerColumn - centerRow + this.cells[k];
+            if (newColumn <= 0 || newColumn >= Constants.BOARD_COLUMNS - 1
+                    || newRow <= 0 || newRow >= Constants.BOARD_ROWS - 1
+                    || this.board[newRow * Constants.BOARD_COLUMNS + newColumn] != Palette.EMPTY) {
+                return;
+            }
+        }
+        for (int k = 0; k < 8; k += 2) {
+            int oldRow = this.cells[k];
+            this.cells[k] = centerRow + centerColumn - this.cells[k + 1];
+            this.cells[k + 1] = centerColumn - centerRow + oldRow;
+        }
+    }
+
+    /**
+     * Method below clears full lines like Game.clearLines - including the fact that the top row inside the
+     * border is copied down but never emptied itself.
+     */
+    private void clearLines() {
+        int width = Constants.BOARD_COLUMNS;
+        for (int i = 1; i < Constants.BOARD_ROWS - 1; i++) {
+            boolean isFull = true;
+            for (int j = 1; j < width - 1; j++) {
+                if (this.board[i * width + j] == Palette.EMPTY) {
+                    isFull = false;
+                    break;
+                }
+            }
+            if (isFull) {
+                for (int j = 1; j < width - 1; j++) {
+                    this.board[i * width + j] = Palette.EMPTY;
+                }
+                for (int k = i; k > 1; k--) {
+                    System.arraycopy(this.board, (k - 1) * width + 1, this.board, k * width + 1, width - 2);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void copyState(byte[] board, int[] pieceCells) {
+        System.arraycopy(this.board, 0, board, 0, board.length);
+        System.arraycopy(this.cells, 0, pieceCells, 0, pieceCells.length);
+    }
+
+    @Override
+    public boolean isOver() {
+        return this.isOver;
+    }
+
+    /**
+     * Accessor methods below return the palette index of the falling piece, the board (the array itself -
+     * callers shouldn't change it), and the snapshot of the board after the latest placement (a new snapshot
+     * object means that the board has changed).
+     */
+    public byte getColorIndex() {
+        return this.colorIndex;
+    }
+
+    public byte[] getBoard() {
+        return this.board;
+    }
+
+    public BoardSnapshot getBoardSnapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * Method below fills the array passed in as a parameter with the rows and columns of the falling piece's
+     * squares, in the same order Piece.getCells uses.
+     */
+    public void getCells(int[] cells) {
+        System.arraycopy(this.cells, 0, cells, 0, cells.length);
+    }
+}
@@ -8,6 +8,32 @@ public class Constants {
     public static final int SQUARE_WIDTH = 30;
     public static final int SCENE_WIDTH = 360;
     public static final int SCENE_HEIGHT = 700;
+    // size of the board, including its border
+    public static final int BOARD_ROWS = 22;
+    public static final int BOARD_COLUMNS = 12;
+    // number of piece placements that can be undone (oldest ones are forgotten first)
+    public static final int HISTORY_CAPACITY = 8192;
+    // number of game events that can wait for the slowest subscriber before new ones are dropped
+    public static final int EVENT_QUEUE_CAPACITY = 1024;
+    // number of cleared lines needed to advance one level
+    public static final int LINES_PER_LEVEL = 10;
+    // system property with the path of the placement analytics file (no analytics recorded if not set)
+    public static final String ANALYTICS_PATH_PROPERTY = "tetris.analytics";
+    // number of placements per analytics chunk, and number of chunks preallocated for the writer
+    public static final int ANALYTICS_CHUNK_SIZE = 4096;
+    public static final int ANALYTICS_CHUNK_POOL = 4;
+    // width of each square, gap between boards, and width to height ratio the tournament wall is laid out for
+    public static final int WALL_SQUARE_WIDTH = 6;
+    public static final int WALL_BOARD_GAP = 10;
+    public static final double WALL_ASPECT_RATIO = 16.0 / 9.0;
+    // number of simulated inputs played in the background on startup to warm up the engine
+    public static final int PREWARM_INPUTS = 50000;
+    // most games created for warming up the engine, however quickly they end
+    public static final int PREWARM_GAMES = 8;
+    // maximum number of boards whose ranked placements are kept by the shared placement cache
+    public static final int PLACEMENT_CACHE_SIZE = 4096;
+    // number of rows a piece may be moved down to make room for rotating it when looking for placements
+    public static final int MAX_ROTATION_DESCENT = 4;
     // coordinates for squares in each tetris piece
     public static final int[][] O_PIECE_COORDS = {{0, 0}, {SQUARE_WIDTH, SQUARE_WIDTH}, {0, SQUARE_WIDTH}, {SQUARE_WIDTH, 0}};
     public static final int[][] S_PIECE_COORDS = {{0, SQUARE_WIDTH}, {SQUARE_WIDTH, SQUARE_WIDTH}, {SQUARE_WIDTH, 0}, {2* SQUARE_WIDTH, 0}};
@@ -0,0 +1,263 @@
+package tetris;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * The DifferentialFuzzer class checks that an engine (f.e. the CompactEngine) plays exactly like the
+ * ReferenceEngine. It generates random sequences of inputs from seeds, applies every input to both engines
+ * side by side, and compares the board and the falling piece after each of them. Runs are spread over
+ * several threads, each with its own pair of engines. When a run diverges, the input sequence is shrunk
+ * (parts of it are removed for as long as the engines still diverge) so that the failure that's reported
+ * is as short as possible. The fuzzer also counts how many line clears were compared, since those are the
+ * part of the rules that random inputs reach the least.
+ */
+public class DifferentialFuzzer {
+    private static final int[] NOISE = {TetrisEngine.TICK, TetrisEngine.LEFT, TetrisEngine.LEFT, TetrisEngine.LEFT,
+            TetrisEngine.RIGHT, TetrisEngine.RIGHT, TetrisEngine.RIGHT, TetrisEngine.ROTATE, TetrisEngine.ROTATE,
+            TetrisEngine.DOWN, TetrisEngine.DROP};
+
+    private Supplier<TetrisEngine> reference;
+    private Supplier<TetrisEngine> candidate;
+    private AtomicLong inputsApplied;
+    private AtomicLong lineClearsCompared;
+
+    /**
+     * Constructor below takes in the suppliers of both engines - each thread gets its own instances.
+     */
+    public DifferentialFuzzer(Supplier<TetrisEngine> reference, Supplier<TetrisEngine> candidate) {
+        this.reference = reference;
+        this.candidate = candidate;
+        this.inputsApplied = new AtomicLong();
+        this.lineClearsCompared = new AtomicLong();
+    }
+
+    /**
+     * Method below generates the inputs of a run from the seed passed in as a parameter. Purely random inputs
+     * end games within about a hundred inputs, before any line is cleared, so the inputs are instead played on
+     * a scratch CompactEngine reset with the same seed (so it gets the same pieces as the engines compared
+     * later on). For most pieces, an AiPlayer chooses a placement and its inputs are used, followed by a tick
+     * that locks the piece - that keeps the stack low and clears lines. For one in eight, a short burst of noise
+     * is used instead (mostly moves and rotations, rarely ticks), which reaches the states a player wouldn't,
+     * like pieces pushed against the walls. Once the scratch game has ended, the rest is filled with ticks.
+     */
+    public static int[] randomInputs(long seed, int length) {
+        Random random = new Random(seed);
+        AiPlayer player = new AiPlayer(AiPlayer.Difficulty.HARD, random);
+        CompactEngine engine = new CompactEngine();
+        engine.reset(seed);
+        byte[] board = new byte[Constants.BOARD_ROWS * Constants.BOARD_COLUMNS];
+        int[] cells = new int[8];
+        int[] inputs = new int[length];
+        int i = 0;
+        while (i < length && !engine.isOver()) {
+            int[] burst = null;
+            if (random.nextInt(8) != 0) {
+                engine.copyState(board, cells);
+                Placement placement = player.choosePlacement(board, engine.getColorIndex());
+                if (placement != null) {
+                    int[] moves = AiPlayer.inputsFor(placement);
+                    burst = Arrays.copyOf(moves, moves.length + 1);
+                    burst[moves.length] = TetrisEngine.TICK;
+                }
+            }
+            if (burst == null) {
+                burst = new int[1 + random.nextInt(8)];
+                for (int k = 0; k < burst.length; k++) {
+                    burst[k] = NOISE[random.nextInt(NOISE.length)];
+                }
+            }
+            for (int k = 0; k < burst.length && i < length; k++) {
+                engine.apply(burst[k]);
+                inputs[i++] = burst[k];
+            }
+        }
+        return inputs;
+    }
+
+    /**
+     * Method below runs the number of runs passed in as a parameter (run i uses seed + i) on the given number
+     * of threads, and returns the shrunk failure of the lowest-numbered run that diverged, or null if none did.
+     * Each thread takes every threads-th run in increasing order. As soon as a run diverges, its number is
+     * shared with the other threads, which then stop before starting any run above it - runs below it are
+     * still finished, since one of them might diverge as well and would then be the one reported.
+     */
+    public Failure fuzz(long seed, int runs, int inputsPerRun, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicInteger lowestFailingRun = new AtomicInteger(Integer.MAX_VALUE);
+        try {
+            List<Future<Failure>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    TetrisEngine first = this.reference.get();
+                    TetrisEngine second = this.candidate.get();
+                    for (int run = thread; run < runs && run < lowestFailingRun.get(); run += threads) {
+                        long runSeed = seed + run;
+                        int[] inputs = randomInputs(runSeed, inputsPerRun);
+                        if (this.firstDivergence(first, second, runSeed, inputs) >= 0) {
+                            lowestFailingRun.accumulateAndGet(run, Math::min);
+                            return this.shrink(first, second, runSeed, inputs);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            Failure lowest = null;
+            for (Future<Failure> result : results) {
+                Failure failure = result.get();
+                if (failure != null && (lowest == null || failure.getSeed() - seed < lowest.getSeed() - seed)) {
+                    lowest = failure;
+                }
+            }
+            return lowest;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Method below plays the inputs passed in as a parameter on both engines (reset with the same seed) and
+     * returns the index of the first input after which their states differ, or -1 if they never do. A run
+     * stops early once the reference game has ended - the real game stops its timeline at that point. Every
+     * input after which the reference board has fewer filled squares than before it has cleared lines, and
+     * is counted as a compared line clear.
+     */
+    public int firstDivergence(TetrisEngine first, TetrisEngine second, long seed, int[] inputs) {
+        byte[] firstBoard = new byte[Constants.BOARD_ROWS * Constants.BOARD_COLUMNS];
+        byte[] secondBoard = new byte[firstBoard.length];
+        int[] firstCells = new int[8];
+        int[] secondCells = new int[8];
+        first.reset(seed);
+        second.reset(seed);
+        int filled = 0;
+        for (int i = 0; i < inputs.length; i++) {
+            first.apply(inputs[i]);
+            second.apply(inputs[i]);
+            this.inputsApplied.incrementAndGet();
+            first.copyState(firstBoard, firstCells);
+            second.copyState(secondBoard, secondCells);
+            if (!Arrays.equals(firstBoard, secondBoard) || !Arrays.equals(firstCells, secondCells)
+                    || first.isOver() != second.isOver()) {
+                return i;
+            }
+            int nowFilled = countFilled(firstBoard);
+            if (nowFilled < filled) {
+                this.lineClearsCompared.incrementAndGet();
+            }
+            filled = nowFilled;
+            if (first.isOver()) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method below counts the squares of the board passed in as a parameter that aren't empty (the
+     * border included).
+     */
+    private static int countFilled(byte[] board) {
+        int count = 0;
+        for (int k = 0; k < board.length; k++) {
+            if (board[k] != Palette.EMPTY) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Method below shrinks a diverging input sequence: it first cuts it right after the first divergence,
+     * and then tries removing chunks of inputs (starting with halves, down to single inputs), keeping every
+     * removal after which the engines still diverge.
+     */
+    private Failure shrink(TetrisEngine first, TetrisEngine second, long seed, int[] inputs) {
+        int[] current = Arrays.copyOf(inputs, this.firstDivergence(first, second, seed, inputs) + 1);
+        for (int chunk = current.length / 2; chunk >= 1; chunk /= 2) {
+            int start = 0;
+            while (start < current.length) {
+                int end = Math.min(start + chunk, current.length);
+                int[] shorter = new int[current.length - (end - start)];
+                System.arraycopy(current, 0, shorter, 0, start);
+                System.arraycopy(current, end, shorter, start, current.length - end);
+                int divergence = this.firstDivergence(first, second, seed, shorter);
+                if (divergence >= 0) {
+                    current = Arrays.copyOf(shorter, divergence + 1);
+                } else {
+                    start += chunk;
+                }
+            }
+        }
+        return new Failure(seed, current);
+    }
+
+    /**
+     * Accessor methods below return the number of inputs applied to each engine so far, and the number of
+     * those inputs that cleared lines.
+     */
+    public long getInputsApplied() {
+        return this.inputsApplied.get();
+    }
+
+    public long getLineClearsCompared() {
+        return this.lineClearsCompared.get();
+    }
+
+    /**
+     * The Failure class describes a shrunk diverging run: the seed of the games, and the inputs after the
+     * last of which the engines' states differ.
+     */
+    public static class Failure {
+        private long seed;
+        private int[] inputs;
+
+        private Failure(long seed, int[] inputs) {
+            this.seed = seed;
+            this.inputs = inputs;
+        }
+
+        public long getSeed() {
+            return this.seed;
+        }
+
+        public int[] getInputs() {
+            return this.inputs.clone();
+        }
+
+        @Override
+        public String toString() {
+            return "seed " + this.seed + ", inputs " + Arrays.toString(this.inputs);
+        }
+    }
+
+    /**
+     * Here is the mainline of the fuzzer, comparing the CompactEngine to the ReferenceEngine:
+     * java tetris.DifferentialFuzzer [runs] [inputs per run] [threads] [seed]
+     */
+    public static void main(String[] argv) throws Exception {
+        int runs = argv.length > 0 ? Integer.parseInt(argv[0]) : 1000;
+        int inputsPerRun = argv.length > 1 ? Integer.parseInt(argv[1]) : 5000;
+        int threads = argv.length > 2 ? Integer.parseInt(argv[2]) : Runtime.getRuntime().availableProcessors();
+        long seed = argv.length > 3 ? Long.parseLong(argv[3]) : System.nanoTime();
+
+        DifferentialFuzzer fuzzer = new DifferentialFuzzer(ReferenceEngine::new, CompactEngine::new);
+        long start = System.nanoTime();
+        Failure failure = fuzzer.fuzz(seed, runs, inputsPerRun, threads);
+        double minutes = (System.nanoTime() - start) / 6e10;
+        System.out.printf("seed %d: %d inputs, %.0f inputs per minute, %d line clears%n", seed,
+                fuzzer.getInputsApplied(), fuzzer.getInputsApplied() / minutes, fuzzer.getLineClearsCompared());
+        if (failure != null) {
+            System.out.println("engines diverged - " + failure);
+            System.exit(1);
+        }
+    }
+}
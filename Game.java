@@ -3,6 +3,7 @@ package tetris;
 import javafx.animation.Animation;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
@@ -16,57 +17,138 @@ import javafx.scene.text.FontPosture;
 import javafx.scene.text.FontWeight;
 import javafx.util.Duration;
 
+import java.io.IOException;
+import java.util.Random;
+
 /**
  * This top-level logic class handles the user interaction and overall
  * logic behind the Tetris game. The class is contained by the PaneOrganizer class and
  * is associated with the main gamePane so that it can call methods on it
  * (such as add labels to it), or associate its own components with it (f.e. the
  * pieces). It's responsible for handling the timeline,
+ * What's on the board is stored in a flat array of palette indices (one byte per square, row after row,
+ * see the Palette class) - the BoardSquares only show it, in the colors of the game's current Theme.
  */
 public class Game {
     private Pane gamePane;
     private BoardSquare[][] boardArray2D;
+    private byte[] board;
+    private byte[] drawnBoard;
+    private Theme theme;
     private Timeline timeline;
     private Piece piece;
    private boolean isPaused;
    private HBox labelBox;
+    private BoardHistory history;
+    private GameEventBus eventBus;
+    private int pieceType;
+    private int linesCleared;
+    private int level;
+    private boolean isOver;
+    private int tick;
+    private long spawnTime;
+    private PlacementRecorder recorder;
+    private Random random;
+    private boolean isHintShown;
+    private BoardSquare[] hintSquares;
 
     /**
      * In the constructor below, instance variables are initialized (a isPaused variable is set to
      * false since the timeline is running), association is set up with the main gamePane, and
-     * a 2D BoardSquare array (created with a row-column major) is instantiated. After that, two
-     * helper methods responsible for creating the board are called (explanation as to why
+     * a 2D BoardSquare array (created with a row-column major) is instantiated, along with the array of
+     * palette indices the board is actually stored in. After that, the
+     * helper method responsible for creating the board is called (explanation as to why
      * there's no separate board class is provided in the readme), and a piece is spawned on
      * the top of the board. Finally, a startGame method is called, responsible for setting up
      * the timeline and handling the visual changes happening on screen over time.
+     * The "Game Over!" label is shown by a subscriber of the game's event bus (running on the FX
+     * thread through Platform.runLater), rather than from within the update itself. If a path for
+     * placement analytics is set (see the Constants class), a PlacementRecorder is set up as well.
      */
     public Game(Pane gamePane) {
+        this(gamePane, new Random());
+        this.eventBus.subscribe(Platform::runLater, (GameEvent event) -> {
+            if (event.getType() == GameEvent.Type.GAME_OVER && this.isOver) {
+                this.setupLabel("Game Over!");
+            }
+        });
+        this.setupRecorder();
+        this.startGame();
+    }
+
+    /**
+     * Constructor below sets up a game that doesn't run on its own - there is no timeline, and the game only
+     * moves forward when its update method is called (f.e. by the DifferentialFuzzer's reference engine).
+     * Pieces are chosen with the Random passed in as a parameter, so a seeded Random always produces the
+     * same sequence of pieces. Such games never record analytics, so that simulations (f.e. the ones
+     * warming up the engine on startup) don't end up in the placement file.
+     */
+    public Game(Pane gamePane, Random random) {
         this.isPaused = false;
         this.gamePane = gamePane;
-        this.boardArray2D = new BoardSquare[22][12];
+        this.random = random;
+        this.boardArray2D = new BoardSquare[Constants.BOARD_ROWS][Constants.BOARD_COLUMNS];
+        this.board = new byte[Constants.BOARD_ROWS * Constants.BOARD_COLUMNS];
+        this.drawnBoard = new byte[this.board.length];
+        this.theme = Theme.CLASSIC;
+        this.history = new BoardHistory(Constants.HISTORY_CAPACITY);
+        this.eventBus = new GameEventBus(Constants.EVENT_QUEUE_CAPACITY);
 
         this.generateBoard();
-        this.organizeBoard();
+        this.history.record(this.board, Palette.EMPTY, 0, 0, 0);
 
         this.spawnPiece();
-        this.startGame();
+    }
+
+    /**
+     * Helper method below creates a PlacementRecorder writing to the path given by the analytics system
+     * property, if there is one. The recorded placements are flushed whenever the game ends (on the thread
+     * running the game, since that's the only one that may touch the recorder's active chunk). If the file
+     * can't be created, the game simply runs without analytics. If writing fails later on, the recorder stops
+     * on its own and the failure is reported when the game ends.
+     */
+    private void setupRecorder() {
+        String path = System.getProperty(Constants.ANALYTICS_PATH_PROPERTY);
+        if (path == null) {
+            return;
+        }
+        try {
+            this.recorder = new PlacementRecorder(path);
+            this.eventBus.subscribe(Runnable::run, (GameEvent event) -> {
+                if (event.getType() == GameEvent.Type.GAME_OVER) {
+                    this.recorder.flush();
+                    if (this.recorder.getFailure() != null) {
+                        System.err.println("Analytics stopped: " + this.recorder.getFailure().getMessage());
+                    }
+                }
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     /**
      * Method below is responsible for generating a board by looping through the 2D BoardArray
      * and initializing its indexes to be BoardSquares.
-     * It later adds them to the pane, after firstly setting their color to be one that depends on their
-     * row and column 2D Array index (if it's the first or the last column or row, the color is grey which represents a
-     * border - if any other one, it's initially black).
+     * It later adds them to the pane, after firstly setting their palette index to be one that depends on their
+     * row and column 2D Array index (if it's the first or the last column or row, the index is the one of the
+     * border - if any other one, it's initially empty), and their color to the one of that index.
+     * The location of each square is set in the same pass, and depends on the row- and column- index
+     * of a particular element that is multiplied by the width of a square (if f.e. a square is in the
+     * first row, second column, the coordinates of it's top-left corner would be (30,0)).
      */
     public void generateBoard() {
-        for (int i = 0; i < 22; i++) {
-            for (int j = 0; j < 12; j++) {
-                Color color = Color.BLACK;
-                if ((i == 0) || (i == 21) || (j == 0) || (j == 11)) {
-                    color = Color.GREY;
+        for (int i = 0; i < Constants.BOARD_ROWS; i++) {
+            for (int j = 0; j < Constants.BOARD_COLUMNS; j++) {
+                byte colorIndex = Palette.EMPTY;
+                if ((i == 0) || (i == Constants.BOARD_ROWS - 1) || (j == 0) || (j == Constants.BOARD_COLUMNS - 1)) {
+                    colorIndex = Palette.BORDER;
                 }
-                BoardSquare square = new BoardSquare(this.gamePane, color);
+                board[i * Constants.BOARD_COLUMNS + j] = colorIndex;
+                drawnBoard[i * Constants.BOARD_COLUMNS + j] = colorIndex;
+                BoardSquare square = new BoardSquare(this.gamePane, this.theme.getColor(colorIndex));
+                square.setXPos(j * Constants.SQUARE_WIDTH);
+                square.setYPos(i * Constants.SQUARE_WIDTH);
                 boardArray2D[i][j] = square;
                 square.addToPane(this.gamePane);
             }
@@ -74,20 +156,34 @@ public class Game {
     }
 
     /**
-     * Method below arranges the board by setting the location of all the BoardSquares created
-     * in the generateBoard method. The location is dependent on the row- and column- index of
-     * a particular element that is multiplied by the width of a square (if f.e. a square is in the
-     * first row, second column, the coordinates of it's top-left corner would be (10,20).
+     * Method below draws the board: it compares every palette index of the board with the one that was
+     * drawn last time, and only if it has changed, sets the color of the appropriate BoardSquare to the
+     * color of that index in the current theme. It's called whenever the board has changed (a piece has
+     * fallen, lines were cleared, or the game was rewound).
      */
-    public void organizeBoard() {
-        for (int i = 0; i < 22; i++) {
-            for (int j = 0; j < 12; j++) {
-                boardArray2D[i][j].setXPos(j * Constants.SQUARE_WIDTH);
-                boardArray2D[i][j].setYPos(i * Constants.SQUARE_WIDTH);
+    public void drawBoard() {
+        for (int i = 0; i < this.board.length; i++) {
+            if (this.board[i] != this.drawnBoard[i]) {
+                this.drawnBoard[i] = this.board[i];
+                boardArray2D[i / Constants.BOARD_COLUMNS][i % Constants.BOARD_COLUMNS]
+                        .setColor(this.theme.getColor(this.board[i]));
             }
         }
     }
 
+    /**
+     * Method below changes the theme the game is drawn with (passed in as a parameter) and recolors all
+     * squares of the board and of the falling piece. The board itself (its palette indices) isn't touched.
+     */
+    public void setTheme(Theme theme) {
+        this.theme = theme;
+        for (int i = 0; i < this.board.length; i++) {
+            boardArray2D[i / Constants.BOARD_COLUMNS][i % Constants.BOARD_COLUMNS]
+                    .setColor(this.theme.getColor(this.drawnBoard[i]));
+        }
+        this.piece.setColor(this.theme.getColor(this.piece.getColorIndex()));
+    }
+
     /**
      * Method below is responsible for setting up a Timeline and a KeyEvent that calls an
      * appropriate method with the end of each KeyFrame. It's called just once from within the Game
@@ -105,53 +201,214 @@ public class Game {
      * Method below is called with the end of each KeyFrame. Firstly, it checks whether a game has
      * ended, and if not, it prompts the piece to move down. If the piece can no longer move (since it
      * has collided with another, already fallen piece, or the bottom of the screen, according to whether
-     * the location to which it's supposed to be moved is black or not), ot changes the colors of the board squares
-     * to which it was supposed to be moved to the color of that piece, clears lines (if there are any already
-     * filled), and spawns a new piece at the top of the screen.
+     * the location to which it's supposed to be moved is empty or not), ot changes the board squares
+     * to which it was supposed to be moved to the palette index of that piece, clears lines (if there are any
+     * already filled), draws the board, and spawns a new piece at the top of the screen. Every step of that
+     * is published as an event on the event bus, so that sounds or effects never run inside the update.
+     * If analytics are enabled, the placement is recorded as well.
      */
     public void update() {
+        this.tick++;
         this.hasGameEnded();
         this.piece.fallDown();
         if (!this.piece.canItMove(1, 0)) {
-            this.piece.changeColor(this.piece.getColor());
-            this.clearLines();
+            this.piece.changeColor(this.piece.getColorIndex());
+            this.removeHint();
+            this.eventBus.publish(GameEvent.Type.PIECE_LOCKED, this.pieceType, 0, 0, this.level);
+            int clearedRows = this.clearLines();
+            if (clearedRows != 0) {
+                this.countLines(clearedRows);
+            }
+            this.drawBoard();
+            this.history.record(this.board, this.piece.getColorIndex(), this.linesCleared, this.level, this.tick);
+            if (this.recorder != null) {
+                this.recorder.record(this.tick, this.pieceType, this.piece.getRotation(), this.piece.getColumn(),
+                        Integer.bitCount(clearedRows), this.getStackHeight(), this.countHoles(),
+                        (int) ((System.nanoTime() - this.spawnTime) / 1000000));
+            }
             this.startNewPiece();
         }
     }
 
+    /**
+     * Method below returns the height of the stack of fallen pieces - the number of rows between the
+     * bottom border and the highest square that isn't empty (0 for an empty board).
+     */
+    public int getStackHeight() {
+        for (int i = 1; i < (Constants.BOARD_ROWS - 1); i++) {
+            for (int j = 1; j < (Constants.BOARD_COLUMNS - 1); j++) {
+                if (board[i * Constants.BOARD_COLUMNS + j] != Palette.EMPTY) {
+                    return (Constants.BOARD_ROWS - 1) - i;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Method below counts the holes of the board - empty squares that have at least one filled square
+     * above them in the same column.
+     */
+    public int countHoles() {
+        int holes = 0;
+        for (int j = 1; j < (Constants.BOARD_COLUMNS - 1); j++) {
+            boolean isCovered = false;
+            for (int i = 1; i < (Constants.BOARD_ROWS - 1); i++) {
+                if (board[i * Constants.BOARD_COLUMNS + j] != Palette.EMPTY) {
+                    isCovered = true;
+                } else if (isCovered) {
+                    holes++;
+                }
+            }
+        }
+        return holes;
+    }
+
+    /**
+     * Helper method below publishes the lines that have just been cleared (passed in as a bit mask of
+     * rows), adds them to the total, and if that total has reached the next level, publishes that too.
+     */
+    private void countLines(int clearedRows) {
+        int count = Integer.bitCount(clearedRows);
+        this.eventBus.publish(GameEvent.Type.LINES_CLEARED, this.pieceType, count, clearedRows, this.level);
+        this.linesCleared += count;
+        int newLevel = this.linesCleared / Constants.LINES_PER_LEVEL;
+        if (newLevel > this.level) {
+            this.level = newLevel;
+            this.eventBus.publish(GameEvent.Type.LEVEL_UP, this.pieceType, 0, 0, this.level);
+        }
+    }
+
+    /**
+     * Method below rewinds the game by the number of piece placements passed in as a parameter (practice
+     * mode undo). It asks the history for the snapshot to go back to, and if there is one, restores the
+     * board from it and draws it (only squares that differ from the board currently shown are recolored).
+     * The lines cleared, level, and tick are put back to what they were right after that snapshot's placement.
+     * The falling piece is then removed from the pane, and the piece of the earliest placement that was undone
+     * is spawned again on the top of the restored board (instead of a new, random one). If the game had already
+     * ended, it's brought back to life: the "Game Over!" label is removed and, unless the game is paused, the
+     * timeline is started again.
+     */
+    public void rewind(int placements) {
+        BoardSnapshot current = this.history.latest();
+        BoardSnapshot undone = this.history.get(Math.min(placements, this.history.size() - 1) - 1);
+        BoardSnapshot target = this.history.rewind(placements);
+        if (target != null) {
+            target.restore(this.board, current);
+            this.linesCleared = target.getLinesCleared();
+            this.level = target.getLevel();
+            this.tick = target.getTick();
+            this.drawBoard();
+            this.piece.removeFromPane();
+            this.spawnPiece(undone.getPlacedPiece());
+            if (this.isOver) {
+                this.isOver = false;
+                this.deleteLabel();
+                if (this.timeline != null && !this.isPaused) {
+                    this.timeline.play();
+                }
+            }
+        }
+    }
+
     /**
      * This method below returns a new, randomly generated piece each time it's called and assigns
      * it to a previously initialized instance variable (so that no two moving (actual) pieces
      * can exist simultaneously).
      */
     private Piece spawnPiece() {
-        int randInt = (int) (Math.random() * 7);
-        switch (randInt) {
+        switch (this.random.nextInt(7)) {
             case 0:
-                this.piece = new Piece(this, this.gamePane, Constants.I_PIECE_COORDS, Constants.I_PIECE_COLOR, this.boardArray2D);
-                break;
+                return this.spawnPiece(Palette.I_PIECE);
             case 1:
-                this.piece = new Piece(this, this.gamePane, Constants.J_PIECE_COORDS, Constants.J_PIECE_COLOR, this.boardArray2D);
-                break;
+                return this.spawnPiece(Palette.J_PIECE);
             case 2:
-                this.piece = new Piece(this, this.gamePane, Constants.T_PIECE_COORDS, Constants.T_PIECE_COLOR, this.boardArray2D);
-                break;
+                return this.spawnPiece(Palette.T_PIECE);
             case 3:
-                this.piece = new Piece(this, this.gamePane, Constants.Z_PIECE_COORDS, Constants.Z_PIECE_COLOR, this.boardArray2D);
-                break;
+                return this.spawnPiece(Palette.Z_PIECE);
             case 4:
-                this.piece = new Piece(this, this.gamePane, Constants.S_PIECE_COORDS, Constants.S_PIECE_COLOR, this.boardArray2D);
-                break;
+                return this.spawnPiece(Palette.S_PIECE);
             case 5:
-                this.piece = new Piece(this, this.gamePane, Constants.O_PIECE_COORDS, Constants.O_PIECE_COLOR, this.boardArray2D);
+                return this.spawnPiece(Palette.O_PIECE);
+            default:
+                return this.spawnPiece(Palette.L_PIECE);
+        }
+    }
+
+    /**
+     * Method below creates the piece with the palette index passed in as a parameter on the top of the board
+     * and assigns it to the same instance variable as above. It's used both for random pieces and for giving
+     * back a piece whose placement has been undone.
+     */
+    private Piece spawnPiece(byte colorIndex) {
+        this.spawnTime = System.nanoTime();
+        switch (colorIndex) {
+            case Palette.I_PIECE:
+                this.piece = new Piece(this, this.gamePane, Constants.I_PIECE_COORDS, Palette.I_PIECE, this.board);
+                break;
+            case Palette.J_PIECE:
+                this.piece = new Piece(this, this.gamePane, Constants.J_PIECE_COORDS, Palette.J_PIECE, this.board);
+                break;
+            case Palette.T_PIECE:
+                this.piece = new Piece(this, this.gamePane, Constants.T_PIECE_COORDS, Palette.T_PIECE, this.board);
+                break;
+            case Palette.Z_PIECE:
+                this.piece = new Piece(this, this.gamePane, Constants.Z_PIECE_COORDS, Palette.Z_PIECE, this.board);
+                break;
+            case Palette.S_PIECE:
+                this.piece = new Piece(this, this.gamePane, Constants.S_PIECE_COORDS, Palette.S_PIECE, this.board);
+                break;
+            case Palette.O_PIECE:
+                this.piece = new Piece(this, this.gamePane, Constants.O_PIECE_COORDS, Palette.O_PIECE, this.board);
                 break;
             default:
-                this.piece = new Piece(this, this.gamePane, Constants.L_PIECE_COORDS, Constants.L_PIECE_COLOR, this.boardArray2D);
+                this.piece = new Piece(this, this.gamePane, Constants.L_PIECE_COORDS, Palette.L_PIECE, this.board);
                 break;
         }
+        this.pieceType = this.piece.getColorIndex();
+        this.eventBus.publish(GameEvent.Type.PIECE_SPAWNED, this.pieceType, 0, 0, this.level);
+        this.showHint();
         return this.piece;
     }
 
+    /**
+     * Method below shows the hint - four translucent squares where the falling piece would best be placed,
+     * according to the shared PlacementCache (so boards that have been seen before, in this game or any
+     * other, aren't evaluated again). The previous hint is removed first, and nothing is shown if hints
+     * are turned off or the piece can't be placed anywhere.
+     */
+    private void showHint() {
+        this.removeHint();
+        if (!this.isHintShown) {
+            return;
+        }
+        Placement best = PlacementCache.SHARED.getBestPlacement(this.board, this.piece.getColorIndex());
+        if (best == null) {
+            return;
+        }
+        int[] cells = best.getCells();
+        Color color = this.theme.getColor(this.piece.getColorIndex()).deriveColor(0, 1, 1, 0.4);
+        this.hintSquares = new BoardSquare[4];
+        for (int i = 0; i < 4; i++) {
+            this.hintSquares[i] = new BoardSquare(this.gamePane, color);
+            this.hintSquares[i].setXPos(cells[2 * i + 1] * Constants.SQUARE_WIDTH);
+            this.hintSquares[i].setYPos(cells[2 * i] * Constants.SQUARE_WIDTH);
+            this.hintSquares[i].addToPane(this.gamePane);
+        }
+    }
+
+    /**
+     * Method below removes the squares of the hint (if there are any) from the gamePane.
+     */
+    private void removeHint() {
+        if (this.hintSquares != null) {
+            for (BoardSquare square : this.hintSquares) {
+                square.removeFromPane(this.gamePane);
+            }
+            this.hintSquares = null;
+        }
+    }
+
     /**
      * Method below creates a new piece by calling the spawnPiece method, as long as the game hasn't yet ended.
      */
@@ -163,15 +420,20 @@ public class Game {
 
     /**
      * Method below is responsible for checking whether a game has ended. It loops through the squares within
-     * the second top row (first one is a part of the border), and if any of them aren't black
-     * (excluding ones in the first or last column), it stops the timeline, sets up a label informing user of
-     * the fact that the game has ended, and returns true.
+     * the second top row (first one is a part of the border), and if any of them aren't empty
+     * (excluding ones in the first or last column), it stops the timeline, publishes the game over event
+     * (just once, the first time the end is detected), and returns true.
      */
     public boolean hasGameEnded() {
-        for (int i = 1; i < (boardArray2D[1].length - 1); i++) {
-            if ((!boardArray2D[1][i].isBlack())) {
-                this.timeline.stop();
-                this.setupLabel("Game Over!");
+        for (int i = 1; i < (Constants.BOARD_COLUMNS - 1); i++) {
+            if (board[Constants.BOARD_COLUMNS + i] != Palette.EMPTY) {
+                if (this.timeline != null) {
+                    this.timeline.stop();
+                }
+                if (!this.isOver) {
+                    this.isOver = true;
+                    this.eventBus.publish(GameEvent.Type.GAME_OVER, this.pieceType, 0, 0, this.level);
+                }
                 return true;
             }
         }
@@ -197,8 +459,8 @@ public class Game {
     }
 
     /**
-     * Method below deletes a labelBox. It's used just once, and gets rid of the "Pause" label that appears
-     * whenever a game is paused.
+     * Method below deletes a labelBox. It gets rid of the "Pause" label that appears whenever a game is
+     * paused, and of the "Game Over!" label when a finished game is rewound.
      */
     private void deleteLabel() {
         this.gamePane.getChildren().remove(this.labelBox);
@@ -215,7 +477,10 @@ public class Game {
      * on the other hand, it firstly checks whether the timeline hasn't already been paused, and
      * if not, reassigns the isPaused variable to true, pauses the timeline, and sets up a label.
      * In case the timeline has already been paused, it starts the timeline again, reassigns the isPaused
-     * variable, and deletes the previously created label.
+     * variable, and deletes the previously created label. The U key undoes the last placement - also while
+     * the game is paused, or after it has ended. Neither of those keys does anything in a game without
+     * a timeline.
+     * The H key turns the hint (the best placement for the falling piece) on or off.
      */
     public void onKeyPress(KeyEvent event) {
         KeyCode keyPressed = event.getCode();
@@ -237,6 +502,9 @@ public class Game {
                 }
                 break;
             case P:
+                if (this.timeline == null) {
+                    break;
+                }
                 if (this.timeline.getStatus() == Animation.Status.RUNNING) {
                     this.isPaused = true;
                     this.timeline.pause();
@@ -250,6 +518,15 @@ public class Game {
             case UP:
                 this.piece.rotate();
                 break;
+            case U:
+                if (this.timeline != null) {
+                    this.rewind(1);
+                }
+                break;
+            case H:
+                this.isHintShown = !this.isHintShown;
+                this.showHint();
+                break;
             default:
                 break;
                     }
@@ -260,39 +537,42 @@ public class Game {
      * Method below is responsible for clearing filled lines of the board. It firstly loops through each
      * row of the board from top to bottom (except for first, and last row, that represent the border),
      * and checks whether the row is full by looping through the squares within that particular row and checking
-     * if they're colorful. If yes, it then loops through all those squares in a row (except for the first and
-     * last one that are a part of the border), and sets their color to black so that the row above
+     * if they're filled. If yes, it then loops through all those squares in a row (except for the first and
+     * last one that are a part of the border), and empties them so that the row above
      * can be moved down. After that, it loops through all the rows from the row that has been cleared to the top,
-     * and for each element within a row sets its color to one of an element in a row above, creating an
-     * illusion of rows being deleted.
+     * and copies the inner squares of the row above into each of them, moving the rows down. The
+     * BoardSquares are only recolored once the board is drawn. It returns the rows that have been cleared
+     * as a bit mask (bit i is set if row i was full), which is 0 if no line was cleared.
      */
-    public void clearLines() {
-        for (int i = 1; i < (boardArray2D.length - 1); i++) {
-            if (this.isRowFull(boardArray2D[i])) {
-                for (int j = 1; j < (boardArray2D[i].length - 1); j++) {
-                    boardArray2D[i][j].setColor(Color.BLACK);
+    public int clearLines() {
+        int clearedRows = 0;
+        int width = Constants.BOARD_COLUMNS;
+        for (int i = 1; i < (Constants.BOARD_ROWS - 1); i++) {
+            if (this.isRowFull(i)) {
+                clearedRows |= 1 << i;
+                for (int j = 1; j < (width - 1); j++) {
+                    board[i * width + j] = Palette.EMPTY;
                 }
                 for (int k = i; k > 1; k--) {
-                    for (int l = 1; l < (boardArray2D[k].length - 1); l++) {
-                        boardArray2D[k][l].setColor(boardArray2D[k-1][l].getColor());
-                    }
+                    System.arraycopy(board, (k - 1) * width + 1, board, k * width + 1, width - 2);
                 }
             }
         }
+        return clearedRows;
     }
 
     /**
      * Boolean method below is responsible for checking whether a row is full, and is crucial for clearing filled lines.
-     * It firstly sets a counter to be 0, and then loops through the elements of each row (except
-     * for the first, and last square, that represent the border). If a particular element
-     * within a row isn't black (is colorful - which represents a piece that has already fallen), it increments
+     * It firstly sets a counter to be 0, and then loops through the elements of the row passed in as a
+     * parameter (except for the first, and last square, that represent the border). If a particular element
+     * within a row isn't empty (which represents a piece that has already fallen), it increments
      * the counter. When the counter is equal to 10 (the number of squares in a row within a board that aren't
      * part of the border), the row is full and method returns true.
      */
-    public boolean isRowFull(BoardSquare[] row) {
+    public boolean isRowFull(int row) {
         int counter = 0;
-        for (int i = 1; i < row.length - 1; i++) {
-            if (!row[i].isBlack()) {
+        for (int i = 1; i < Constants.BOARD_COLUMNS - 1; i++) {
+            if (board[row * Constants.BOARD_COLUMNS + i] != Palette.EMPTY) {
                 counter++;
             }
         }
@@ -301,6 +581,17 @@ public class Game {
         } return false;
     }
 
+    /**
+     * Method below writes the placements recorded so far (if analytics are enabled) and closes the file. It's
+     * called on the thread running the game right before the program exits, so that the last, partly filled
+     * chunk of records isn't lost.
+     */
+    public void closeAnalytics() {
+        if (this.recorder != null) {
+            this.recorder.close();
+        }
+    }
+
     /**
      * Method below checks whether the game has been paused, depending on a variable that's been reassigned based
      * on user's input ("p" key).
@@ -308,4 +599,44 @@ public class Game {
      public boolean isItPaused() {
      return this.isPaused;
      }
+
+    /**
+     * Accessor method below returns the game's event bus, so that other classes (f.e. sounds or
+     * analytics) can subscribe to the events it publishes.
+     */
+    public GameEventBus getEventBus() {
+        return this.eventBus;
+    }
+
+    /**
+     * Accessor methods below return the snapshot of the board after the latest placement (a new snapshot
+     * object means that the board has changed), and the falling piece - used f.e. by the TournamentWall to
+     * draw the game without its BoardSquares.
+     */
+    public BoardSnapshot getBoardSnapshot() {
+        return this.history.latest();
+    }
+
+    public Piece getPiece() {
+        return this.piece;
+    }
+
+    /**
+     * Accessor methods below return the board (the array of palette indices itself, stored row after row
+     * - callers shouldn't change it) and whether the game has ended.
+     */
+    public byte[] getBoard() {
+        return this.board;
+    }
+
+    public boolean isItOver() {
+        return this.isOver;
+    }
+
+    /**
+     * Accessor method below returns the theme the game is currently drawn with.
+     */
+    public Theme getTheme() {
+        return this.theme;
+    }
 }
\ No newline at end of file
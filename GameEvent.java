@@ -0,0 +1,79 @@
+package tetris;
+
+/**
+ * The GameEvent class represents something that happened in the game (a piece was spawned or locked,
+ * lines were cleared, the level went up, or the game ended) that other parts of the program - sounds,
+ * analytics, on-screen effects - might want to react to. Events are preallocated by the GameEventBus
+ * (one ring of them, plus one event per subscriber that the ring's events are copied into before they are
+ * handed over) and reused, so publishing an event never creates a new object. Subscribers should therefore
+ * read whatever they need from an event inside their listener and never keep a reference to it.
+ */
+public class GameEvent {
+
+    /**
+     * The kinds of events published by the Game class.
+     */
+    public enum Type {
+        PIECE_SPAWNED,
+        PIECE_LOCKED,
+        LINES_CLEARED,
+        LEVEL_UP,
+        GAME_OVER
+    }
+
+    private Type type;
+    private int pieceType;
+    private int lineCount;
+    private int clearedRows;
+    private int level;
+    volatile long sequence = -1;
+
+    /**
+     * Method below overwrites all fields of a (reused) event - it's called only by the GameEventBus
+     * right before the event is handed over to the subscribers.
+     */
+    void set(Type type, int pieceType, int lineCount, int clearedRows, int level) {
+        this.type = type;
+        this.pieceType = pieceType;
+        this.lineCount = lineCount;
+        this.clearedRows = clearedRows;
+        this.level = level;
+    }
+
+    /**
+     * Method below copies all fields of the event passed in as a parameter into this one (the sequence
+     * number is left alone) - it's used by the GameEventBus to take a subscriber's copy of a ring slot.
+     */
+    void copyFrom(GameEvent event) {
+        this.type = event.type;
+        this.pieceType = event.pieceType;
+        this.lineCount = event.lineCount;
+        this.clearedRows = event.clearedRows;
+        this.level = event.level;
+    }
+
+    /**
+     * Accessor methods below return the event's fields. The piece type is the piece's palette index
+     * (see the Palette class), the cleared rows are stored as a bit mask (bit i set means row i of the board
+     * was cleared), and the level is the one the game is on after the event.
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    public int getPieceType() {
+        return this.pieceType;
+    }
+
+    public int getLineCount() {
+        return this.lineCount;
+    }
+
+    public int getClearedRows() {
+        return this.clearedRows;
+    }
+
+    public int getLevel() {
+        return this.level;
+    }
+}
@@ -0,0 +1,164 @@
+package tetris;
+
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The GameEventBus class delivers GameEvents published by the Game (on the FX thread, from within the
+ * timeline's update) to subscribers running on their own executors. Events are stored in a bounded ring
+ * of preallocated GameEvent objects, and the only thing shared between threads are sequence numbers, so
+ * no locks are taken. Publishing never waits for subscribers, and never depends on them - every event is
+ * written to the ring. A subscriber that falls so far behind that the ring laps it skips ahead to the
+ * oldest event still in the ring and counts the events it missed, without affecting any other subscriber.
+ * Only one thread (the one running the game) is supposed to publish events.
+ */
+public class GameEventBus {
+    private GameEvent[] ring;
+    private int mask;
+    private AtomicLong published;
+    private List<Subscription> subscriptions;
+
+    /**
+     * Constructor below creates the ring with all of its events up front. The capacity passed in as
+     * a parameter is rounded up to a power of two, so that a sequence number can be turned into an
+     * index of the ring with a bit mask.
+     */
+    public GameEventBus(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.ring = new GameEvent[size];
+        for (int i = 0; i < size; i++) {
+            this.ring[i] = new GameEvent();
+        }
+        this.mask = size - 1;
+        this.published = new AtomicLong(-1);
+        this.subscriptions = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Method below registers a listener that will be called on the executor passed in as a parameter
+     * (f.e. Platform::runLater for UI effects, or a single-thread executor for audio). The listener only
+     * receives events published after it has subscribed, always in order and never concurrently with
+     * itself. The returned subscription can be asked how many events it has missed.
+     */
+    public Subscription subscribe(Executor executor, GameEventListener listener) {
+        Subscription subscription = new Subscription(executor, listener, this.published.get() + 1);
+        this.subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Method below publishes an event. The preallocated event in the next slot is first marked as being
+     * written (so that a lapped subscriber reading it at the same time can tell its copy is torn), filled in,
+     * and stamped with its new sequence number. The sequence number is then made visible to the other
+     * threads, and each subscriber that isn't already draining the ring is scheduled on its executor.
+     */
+    public void publish(GameEvent.Type type, int pieceType, int lineCount, int clearedRows, int level) {
+        long next = this.published.get() + 1;
+        GameEvent slot = this.ring[(int) (next & this.mask)];
+        slot.sequence = -1;
+        VarHandle.storeStoreFence();
+        slot.set(type, pieceType, lineCount, clearedRows, level);
+        slot.sequence = next;
+        this.published.set(next);
+        for (Subscription subscription : this.subscriptions) {
+            subscription.schedule();
+        }
+    }
+
+    /**
+     * The Subscription class keeps track of a single subscriber: its executor, its listener, the task draining
+     * the ring for it, its own copy of the event being handed over, the sequence number of the next event it
+     * should read, whether its drain task is currently scheduled, and how many events it has missed or failed
+     * to handle.
+     */
+    public class Subscription {
+        private Executor executor;
+        private GameEventListener listener;
+        private Runnable drainTask;
+        private GameEvent event;
+        private AtomicLong cursor;
+        private AtomicBoolean scheduled;
+        private AtomicLong dropped;
+        private AtomicLong failed;
+
+        private Subscription(Executor executor, GameEventListener listener, long start) {
+            this.executor = executor;
+            this.listener = listener;
+            this.drainTask = this::drain;
+            this.event = new GameEvent();
+            this.cursor = new AtomicLong(start);
+            this.scheduled = new AtomicBoolean(false);
+            this.dropped = new AtomicLong(0);
+            this.failed = new AtomicLong(0);
+        }
+
+        /**
+         * Method below submits the subscriber's drain task (created once, with the subscription) to its
+         * executor, unless it's already scheduled (in which case it will pick up the new event as well).
+         */
+        private void schedule() {
+            if (this.scheduled.compareAndSet(false, true)) {
+                this.executor.execute(this.drainTask);
+            }
+        }
+
+        /**
+         * Method below hands all events published so far to the listener, in order. Before an event is
+         * handed over, it's copied out of the ring, and its sequence number is checked both before and after
+         * copying - if the publisher has overwritten the slot in the meantime, the subscriber has been lapped,
+         * so it skips ahead to the oldest event still in the ring and adds the events it skipped to its own
+         * dropped count. A listener throwing an exception doesn't stop the subscription - the failure is
+         * counted and passed on to the thread's uncaught exception handler, and the next event is handled.
+         * Before returning, it checks once more for events published in the meantime, so that none of them
+         * is left waiting until the next publish.
+         */
+        private void drain() {
+            do {
+                long next = this.cursor.get();
+                while (next <= GameEventBus.this.published.get()) {
+                    GameEvent slot = GameEventBus.this.ring[(int) (next & GameEventBus.this.mask)];
+                    boolean isCopied = slot.sequence == next;
+                    if (isCopied) {
+                        this.event.copyFrom(slot);
+                        VarHandle.loadLoadFence();
+                        isCopied = slot.sequence == next;
+                    }
+                    if (!isCopied) {
+                        long oldest = GameEventBus.this.published.get() - GameEventBus.this.mask + 1;
+                        this.dropped.addAndGet(oldest - next);
+                        next = oldest;
+                        continue;
+                    }
+                    try {
+                        this.listener.onEvent(this.event);
+                    } catch (RuntimeException e) {
+                        this.failed.incrementAndGet();
+                        Thread thread = Thread.currentThread();
+                        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                    }
+                    next++;
+                    this.cursor.set(next);
+                }
+                this.cursor.set(next);
+                this.scheduled.set(false);
+            } while (this.cursor.get() <= GameEventBus.this.published.get()
+                    && this.scheduled.compareAndSet(false, true));
+        }
+
+        /**
+         * Accessor methods below return the number of events this subscriber has missed because the ring
+         * lapped it, and the number of events its listener has thrown an exception for.
+         */
+        public long getDroppedCount() {
+            return this.dropped.get();
+        }
+
+        public long getFailedCount() {
+            return this.failed.get();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package tetris;
+
+/**
+ * Interface implemented by anything that wants to react to GameEvents. Listeners are registered with
+ * the GameEventBus together with the executor they should be called on.
+ */
+public interface GameEventListener {
+
+    void onEvent(GameEvent event);
+}
@@ -0,0 +1,24 @@
+package tetris;
+
+/**
+ * The Palette class defines the palette indices the board is stored with. Each square of the board is a
+ * single byte holding one of these indices rather than a Color, so the game logic only ever compares small
+ * numbers (a square is empty if it holds EMPTY), and a whole board fits in a few hundred bytes.
+ * The actual colors are only looked up through a Theme when the board is drawn.
+ */
+public class Palette {
+
+    public static final byte EMPTY = 0;
+    public static final byte BORDER = 1;
+    // squares of other players' garbage lines (not used by the single player game yet)
+    public static final byte GARBAGE = 2;
+    public static final byte O_PIECE = 3;
+    public static final byte S_PIECE = 4;
+    public static final byte Z_PIECE = 5;
+    public static final byte L_PIECE = 6;
+    public static final byte J_PIECE = 7;
+    public static final byte I_PIECE = 8;
+    public static final byte T_PIECE = 9;
+    // number of indices above - every Theme has to define a color for each of them
+    public static final int SIZE = 10;
+}
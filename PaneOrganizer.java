@@ -16,6 +16,8 @@ import javafx.scene.layout.Pane;
  */
 public class PaneOrganizer {
     private BorderPane root;
+    private Pane gamePane;
+    private Game game;
 
     /**
      * Constructor below sets up a root pane, and calls other methods
@@ -23,24 +25,29 @@ public class PaneOrganizer {
      * Methods for panes to be added into the root node are called from
      * within the methods creating them - this way, these nodes can be stored
      * as local variables. Then, the constructor creates a new Game instance
-     * and uses a lambda expression to set the KeyEvent responding to user's input.
+     * and uses a lambda expression to set the KeyEvent responding to user's input (which also lets
+     * the StartupTimer know once the very first input has been handled).
      */
     public PaneOrganizer() {
         this.root = new BorderPane();
-        Pane gamePane = new Pane();
-        gamePane.setFocusTraversable(true);
+        this.gamePane = new Pane();
+        this.gamePane.setFocusTraversable(true);
         this.root.setFocusTraversable(false);
-        this.root.setCenter(gamePane);
+        this.root.setCenter(this.gamePane);
 
-        Game game = new Game(gamePane);
-        gamePane.setOnKeyPressed((KeyEvent e) -> game.onKeyPress(e));
+        this.game = new Game(this.gamePane);
+        this.gamePane.setOnKeyPressed((KeyEvent e) -> {
+            this.game.onKeyPress(e);
+            StartupTimer.mark(StartupTimer.Phase.FIRST_INPUT_HANDLED);
+        });
 
         this.createButtonPane();
     }
 
     /**
      * Helper method below creates a buttonPane while specifying its background and alignment.
-     * It creates a quit button responsible for closing the game depending on user's input.
+     * It creates a quit button responsible for closing the game depending on user's input (the game's
+     * analytics are closed first, since the button's action runs on the thread running the game).
      * The Button is then graphically added to the HBox.
      * Because the buttonPane is added to the gamePane through the method by which it's instantiated,
      * it's stored as a local variable.
@@ -49,7 +56,10 @@ public class PaneOrganizer {
         HBox buttonPane = new HBox();
         buttonPane.setStyle("-fx-background-color: #F1F1F1;");
         Button quitButton = new Button("Quit!");
-        quitButton.setOnAction((ActionEvent e) -> System.exit(0));
+        quitButton.setOnAction((ActionEvent e) -> {
+            this.closeGame();
+            System.exit(0);
+        });
         buttonPane.getChildren().add(quitButton);
 
         this.root.setBottom(buttonPane);
@@ -63,4 +73,20 @@ public class PaneOrganizer {
     public BorderPane getRoot() {
         return this.root;
     }
+
+    /**
+     * Method below closes the game's analytics - called when the program is about to exit, either through
+     * the Quit button or by closing the window.
+     */
+    public void closeGame() {
+        this.game.closeAnalytics();
+    }
+
+    /**
+     * Method below moves the keyboard focus to the gamePane - needed when the root is put into a scene
+     * that is already showing (the App shows the stage before the game is built).
+     */
+    public void focusGame() {
+        this.gamePane.requestFocus();
+    }
 }
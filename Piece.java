@@ -8,16 +8,18 @@ import javafx.scene.paint.Color;
  * It is contained by the Game class and is associated with it, along with the gamePane (so that
  * it can f.e. add itself to it). It has 2D array of coordinates and the 2D boardArray created
  * in the Game class passed in as a parameter, so that once it's "added" to the board, it represents an
- * appropriate tetris piece. It also takes in an appropriate color as a parameter, that is
- * predefined for each particular piece.
+ * appropriate tetris piece. It also takes in an appropriate palette index as a parameter, that is
+ * predefined for each particular piece (the color it's drawn with comes from the game's Theme).
+ * The board is the Game's array of palette indices, stored row after row.
  */
 public class Piece {
     private BoardSquare[] squareArray;
-    private BoardSquare[][] boardArray2D;
+    private byte[] board;
     private Pane gamePane;
     private int[][] coords;
     private Game game;
-    private Color color;
+    private byte colorIndex;
+    private int rotation;
 
     /**
      * Constructor below sets up the association by initializing instance variables, as well as
@@ -27,14 +29,14 @@ public class Piece {
      * method responsible for generating squares ("filling" each index of the 1D array - one
      * that was previously null - with a square.
      */
-    public Piece(Game game, Pane gamePane, int[][] coordinates, Color color, BoardSquare[][] boardArray2D) {
+    public Piece(Game game, Pane gamePane, int[][] coordinates, byte colorIndex, byte[] board) {
         this.game = game;
         this.gamePane = gamePane;
         this.coords = coordinates;
-        this.color = color;
-        this.boardArray2D = boardArray2D;
+        this.colorIndex = colorIndex;
+        this.board = board;
         this.squareArray = new BoardSquare[4];
-        this.generateSquares(this.color);
+        this.generateSquares(this.game.getTheme().getColor(this.colorIndex));
     }
 
     /**
@@ -66,27 +68,53 @@ public class Piece {
     }
 
     /**
-     * Method below accesses every BoardSquare of which the 2D array is composed of and changes its color
-     * to one determined by the piece that has fallen (method called once the piece intersects with another one).
+     * Method below accesses every element of the board at which the piece has fallen and changes it to the
+     * palette index passed in as a parameter (method called once the piece intersects with another one).
      * The element of the array that's supposed to be changed is dependent of the location of an appropriate
      * square of which the piece that has fallen is made out of (f.e. the row index is the Y position of a square
      * divided by 30 - the width of the squares that the board is composed of). It later removes these squares
      * (that make a piece) from the main gamePane.
      */
-    public void changeColor(Color color) {
+    public void changeColor(byte colorIndex) {
         for (BoardSquare square : squareArray) {
-            boardArray2D[(int) (square.getYPos() / Constants.SQUARE_WIDTH)]
-                    [(int) (square.getXPos() / Constants.SQUARE_WIDTH)].setColor(color);
+            board[this.indexOf(square.getYPos(), square.getXPos())] = colorIndex;
             square.removeFromPane(this.gamePane);
         }
     }
 
     /**
-     * Method below returns the piece's color - useful for checking whether an element of a board is
-     * "empty" - black, part of the background - or not (a piece that has fallen).
+     * Helper method below returns the index within the board of the square at the exact x- and y- coordinates
+     * passed in as parameters (row and column are calculated by dividing them by the width of the squares).
      */
-    public Color getColor() {
-        return this.color;
+    private int indexOf(double y, double x) {
+        return (int) (y / Constants.SQUARE_WIDTH) * Constants.BOARD_COLUMNS + (int) (x / Constants.SQUARE_WIDTH);
+    }
+
+    /**
+     * Method below removes the squares of which the piece is made of from the main gamePane without
+     * coloring the board - used when the game is rewound and the falling piece is thrown away.
+     */
+    public void removeFromPane() {
+        for (BoardSquare square : squareArray) {
+            square.removeFromPane(this.gamePane);
+        }
+    }
+
+    /**
+     * Method below returns the piece's palette index - the value the board is filled with once the piece
+     * has fallen.
+     */
+    public byte getColorIndex() {
+        return this.colorIndex;
+    }
+
+    /**
+     * Method below recolors the squares of the piece - used when the game's theme is changed.
+     */
+    public void setColor(Color color) {
+        for (BoardSquare square : squareArray) {
+            square.setColor(color);
+        }
     }
 
     /**
@@ -123,13 +151,14 @@ public class Piece {
 
     /**
      * This method returns a boolean depending on whether a piece can move or not. It does so by
-     * looping through the elements of the 2D array of BoardSquares that are in a location to which the piece
-     * is supposed to be moved depending on the parameter, and checking whether they're "empty" (black - then
-     * it can move), or not (colorful - they represent a piece that has already fallen).
+     * looping through the elements of the board that are in a location to which the piece
+     * is supposed to be moved depending on the parameter, and checking whether they're "empty" (then
+     * it can move), or not (border, or a piece that has already fallen).
      */
     public boolean canItMove(int rowChange, int columnChange) {
         for (int i = 0; i < 4; i++) {
-            if (boardArray2D[(int) (squareArray[i].getYPos() / Constants.SQUARE_WIDTH) + rowChange][(int) (squareArray[i].getXPos() / Constants.SQUARE_WIDTH) + columnChange].getColor() != Color.BLACK) {
+            int index = this.indexOf(squareArray[i].getYPos(), squareArray[i].getXPos());
+            if (board[index + rowChange * Constants.BOARD_COLUMNS + columnChange] != Palette.EMPTY) {
                 return false;
             }
         }
@@ -140,10 +169,11 @@ public class Piece {
      * This method is responsible for rotating a particular piece depending on its initial location
      * and a predefined center of rotation that's *usually* (depending on the array of coordinates from the
      * constants class) the top-left square of a piece. It then sets that piece's location to that newly
-     * calculated location, unless that piece is a square (lightpink color).
+     * calculated location, unless that piece is a square (O piece palette index). Every successful rotation
+     * is counted (modulo four quarter turns), so that the piece's orientation can be reported.
      */
     public void rotate() {
-        if (this.color != Constants.O_PIECE_COLOR) {
+        if (this.colorIndex != Palette.O_PIECE) {
             double centerOfRotationX = this.squareArray[0].getXPos();
             double centerOfRotationY = this.squareArray[0].getYPos();
 
@@ -158,6 +188,7 @@ public class Piece {
                     this.squareArray[i].setXPos(newXLocation);
                     this.squareArray[i].setYPos(newYLocation);
                 }
+                this.rotation = (this.rotation + 1) % 4;
             }
         }
     }
@@ -193,14 +224,41 @@ public class Piece {
     }
 
     /**
-     * Method below checks whether a particular element of an 2D board array (calculated by dividing the exact
+     * Method below checks whether a particular element of the board (calculated by dividing the exact
      * x- and y- coordinates passed in as parameters by the width of all board's squares - thus returning
-     * rows and columns) is "empty" (black) or not.
+     * rows and columns) is "empty" or not.
      */
     public boolean checkIfEmpty(double y, double x) {
-        if (boardArray2D[(int) (y / Constants.SQUARE_WIDTH)][(int) (x / Constants.SQUARE_WIDTH)].getColor() != Color.BLACK) {
+        if (board[this.indexOf(y, x)] != Palette.EMPTY) {
             return false;
         } return true;
     }
 
-}
\ No newline at end of file
+    /**
+     * Accessor methods below return the number of quarter turns the piece has made since it was spawned
+     * (0 to 3), and the board column of its leftmost square - both used for recording placements.
+     */
+    public int getRotation() {
+        return this.rotation;
+    }
+
+    public int getColumn() {
+        double minXPos = this.squareArray[0].getXPos();
+        for (int i = 1; i < this.squareArray.length; i++) {
+            minXPos = Math.min(minXPos, this.squareArray[i].getXPos());
+        }
+        return (int) (minXPos / Constants.SQUARE_WIDTH);
+    }
+
+    /**
+     * Method below writes the row and column of each of the piece's squares into the array passed in as
+     * a parameter (row of square i at index 2 * i, column at 2 * i + 1) - used for drawing the piece
+     * somewhere other than the gamePane without creating a new array every frame.
+     */
+    public void getCells(int[] cells) {
+        for (int i = 0; i < this.squareArray.length; i++) {
+            cells[2 * i] = (int) (this.squareArray[i].getYPos() / Constants.SQUARE_WIDTH);
+            cells[2 * i + 1] = (int) (this.squareArray[i].getXPos() / Constants.SQUARE_WIDTH);
+        }
+    }
+}
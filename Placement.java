@@ -0,0 +1,54 @@
+package tetris;
+
+/**
+ * The Placement class describes one place a piece can end up in: how to get it there from where it's
+ * spawned (the number of rows it's moved down first, the number of rotations, and the number of columns
+ * it's moved - negative to the left - before it's dropped), the squares it ends up on, and how good the
+ * resulting board is according to the PlacementEvaluator. Placements never change once created, so they
+ * can be shared through the PlacementCache.
+ */
+public class Placement {
+    private int descent;
+    private int rotations;
+    private int shift;
+    private int[] cells;
+    private int linesCleared;
+    private double score;
+
+    public Placement(int descent, int rotations, int shift, int[] cells, int linesCleared, double score) {
+        this.descent = descent;
+        this.rotations = rotations;
+        this.shift = shift;
+        this.cells = cells.clone();
+        this.linesCleared = linesCleared;
+        this.score = score;
+    }
+
+    public int getDescent() {
+        return this.descent;
+    }
+
+    public int getRotations() {
+        return this.rotations;
+    }
+
+    public int getShift() {
+        return this.shift;
+    }
+
+    /**
+     * Method below returns the row and column of each square of the placed piece (row of square i at
+     * index 2 * i, column at 2 * i + 1), in the same order Piece.getCells uses.
+     */
+    public int[] getCells() {
+        return this.cells.clone();
+    }
+
+    public int getLinesCleared() {
+        return this.linesCleared;
+    }
+
+    public double getScore() {
+        return this.score;
+    }
+}
@@ -0,0 +1,137 @@
+package tetris;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The PlacementCache class remembers the ranked placements the PlacementEvaluator found for a board and
+ * a piece, so that the hint, the AI players and simulations don't evaluate the same combination over and
+ * over (f.e. every frame while the board doesn't change, or across many simulated games). It can be used
+ * from any number of threads at once. Once it holds more entries than its maximum size, the least recently
+ * used ones are evicted - every hit moves an entry to the back of the line, so boards that keep coming up (like
+ * the one a hint is shown for) stay cached. Entries are kept in an access-ordered LinkedHashMap, and the lock
+ * guarding it is only held while looking an entry up or storing it, never while placements are evaluated.
+ * Hits, misses and evictions are counted so that the cache's usefulness can be checked.
+ * SHARED is the cache used by the Game's hint and the AiPlayer.
+ */
+public class PlacementCache {
+
+    public static final PlacementCache SHARED = new PlacementCache(Constants.PLACEMENT_CACHE_SIZE);
+
+    private int maximumSize;
+    private LinkedHashMap<Key, List<Placement>> entries;
+    private AtomicLong hits;
+    private AtomicLong misses;
+    private AtomicLong evictions;
+
+    public PlacementCache(int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<Key, List<Placement>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<Placement>> eldest) {
+                if (this.size() > PlacementCache.this.maximumSize) {
+                    PlacementCache.this.evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.evictions = new AtomicLong();
+    }
+
+    /**
+     * Method below returns the placements of the piece (palette index passed in as a parameter) on the
+     * board, best first. If they aren't cached yet, they're evaluated (without holding any lock, so two
+     * threads might both evaluate the same board - only one result is kept) and stored under a copy of
+     * the board, evicting the least recently used entry if the cache has grown too big.
+     */
+    public List<Placement> getPlacements(byte[] board, byte colorIndex) {
+        List<Placement> placements;
+        synchronized (this.entries) {
+            placements = this.entries.get(new Key(board, colorIndex));
+        }
+        if (placements != null) {
+            this.hits.incrementAndGet();
+            return placements;
+        }
+        this.misses.incrementAndGet();
+        placements = Collections.unmodifiableList(PlacementEvaluator.rankPlacements(board, colorIndex));
+        Key key = new Key(board.clone(), colorIndex);
+        synchronized (this.entries) {
+            List<Placement> existing = this.entries.putIfAbsent(key, placements);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return placements;
+    }
+
+    /**
+     * Method below returns the best placement of the piece on the board, or null if it has none.
+     */
+    public Placement getBestPlacement(byte[] board, byte colorIndex) {
+        List<Placement> placements = this.getPlacements(board, colorIndex);
+        if (placements.isEmpty()) {
+            return null;
+        }
+        return placements.get(0);
+    }
+
+    /**
+     * Accessor methods below return the cache's metrics and its current number of entries.
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    public long getEvictions() {
+        return this.evictions.get();
+    }
+
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * The Key class identifies a cache entry by the board's contents and the piece's palette index. Its hash
+     * is computed over all rows once, when the key is created. Keys used only for looking an entry up wrap
+     * the caller's board without copying it; keys that are stored always own a copy.
+     */
+    private static class Key {
+        private byte[] board;
+        private byte colorIndex;
+        private int hash;
+
+        private Key(byte[] board, byte colorIndex) {
+            this.board = board;
+            this.colorIndex = colorIndex;
+            this.hash = 31 * Arrays.hashCode(board) + colorIndex;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return this.hash == key.hash && this.colorIndex == key.colorIndex && Arrays.equals(this.board, key.board);
+        }
+    }
+}
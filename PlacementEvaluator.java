@@ -0,0 +1,209 @@
+package tetris;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The PlacementEvaluator class finds every place a piece can be put on a board and ranks them. It moves the
+ * piece by the same rules as the CompactEngine (which the DifferentialFuzzer checks against the Game): from
+ * its spawn position, the piece is moved down as few rows as needed for its rotations to fit (f.e. an I piece
+ * can't rotate right after it's spawned, since it would cross the top border), rotated zero to three times,
+ * moved any number of columns to the left or right, and dropped. Each resulting board is scored by the usual
+ * weighted features - lines cleared, total height of the columns, holes, and bumpiness (height differences
+ * between neighbouring columns).
+ * It's used through the PlacementCache, since the same board and piece are often evaluated many times.
+ */
+public class PlacementEvaluator {
+    private static final double HEIGHT_WEIGHT = -0.51;
+    private static final double LINES_WEIGHT = 0.76;
+    private static final double HOLES_WEIGHT = -0.36;
+    private static final double BUMPINESS_WEIGHT = -0.18;
+
+    /**
+     * Method below returns all distinct placements of the piece (palette index passed in as a parameter)
+     * on the board (palette indices, row after row), best first. The list is empty if the piece can't even
+     * be spawned.
+     */
+    public static List<Placement> rankPlacements(byte[] board, byte colorIndex) {
+        List<Placement> placements = new ArrayList<>();
+        int[][] coords = CompactEngine.coordsOf(colorIndex);
+        int[] spawned = new int[8];
+        for (int i = 0; i < 4; i++) {
+            spawned[2 * i] = 1 + coords[i][0] / Constants.SQUARE_WIDTH;
+            spawned[2 * i + 1] = 5 + coords[i][1] / Constants.SQUARE_WIDTH;
+        }
+        if (!canMove(board, spawned, 0, 0)) {
+            return placements;
+        }
+
+        Set<Long> seen = new HashSet<>();
+        byte[] scratch = new byte[board.length];
+        int maxRotations = (colorIndex == Palette.O_PIECE) ? 0 : 3;
+        for (int rotations = 0; rotations <= maxRotations; rotations++) {
+            int[] rotated = spawned.clone();
+            int descent = 0;
+            while (!rotate(board, rotated, rotations)) {
+                if (descent == Constants.MAX_ROTATION_DESCENT || !canMove(board, rotated, 1, 0)) {
+                    rotated = null;
+                    break;
+                }
+                move(rotated, 1, 0);
+                descent++;
+            }
+            if (rotated == null) {
+                continue;
+            }
+            for (int shift = -(Constants.BOARD_COLUMNS - 2); shift <= Constants.BOARD_COLUMNS - 2; shift++) {
+                int[] cells = rotated.clone();
+                int direction = Integer.signum(shift);
+                int moved = 0;
+                while (moved != shift && canMove(board, cells, 0, direction)) {
+                    move(cells, 0, direction);
+                    moved += direction;
+                }
+                if (moved != shift) {
+                    continue;
+                }
+                while (canMove(board, cells, 1, 0)) {
+                    move(cells, 1, 0);
+                }
+                if (seen.add(encode(cells))) {
+                    placements.add(evaluate(board, scratch, colorIndex, descent, rotations, shift, cells));
+                }
+            }
+        }
+        placements.sort(Comparator.comparingDouble(Placement::getScore).reversed());
+        return placements;
+    }
+
+    /**
+     * Helper method below locks the piece into a copy of the board, clears full lines the way the Game does,
+     * and scores what's left.
+     */
+    private static Placement evaluate(byte[] board, byte[] scratch, byte colorIndex, int descent, int rotations,
+                                      int shift, int[] cells) {
+        int width = Constants.BOARD_COLUMNS;
+        System.arraycopy(board, 0, scratch, 0, board.length);
+        for (int k = 0; k < 8; k += 2) {
+            scratch[cells[k] * width + cells[k + 1]] = colorIndex;
+        }
+        int lines = 0;
+        for (int i = 1; i < Constants.BOARD_ROWS - 1; i++) {
+            boolean isFull = true;
+            for (int j = 1; j < width - 1; j++) {
+                if (scratch[i * width + j] == Palette.EMPTY) {
+                    isFull = false;
+                    break;
+                }
+            }
+            if (isFull) {
+                lines++;
+                Arrays.fill(scratch, i * width + 1, i * width + width - 1, Palette.EMPTY);
+                for (int k = i; k > 1; k--) {
+                    System.arraycopy(scratch, (k - 1) * width + 1, scratch, k * width + 1, width - 2);
+                }
+            }
+        }
+
+        int totalHeight = 0;
+        int holes = 0;
+        int bumpiness = 0;
+        int previousHeight = -1;
+        for (int j = 1; j < width - 1; j++) {
+            int height = 0;
+            for (int i = 1; i < Constants.BOARD_ROWS - 1; i++) {
+                if (scratch[i * width + j] != Palette.EMPTY) {
+                    if (height == 0) {
+                        height = (Constants.BOARD_ROWS - 1) - i;
+                    }
+                } else if (height != 0) {
+                    holes++;
+                }
+            }
+            totalHeight += height;
+            if (previousHeight >= 0) {
+                bumpiness += Math.abs(height - previousHeight);
+            }
+            previousHeight = height;
+        }
+        double score = HEIGHT_WEIGHT * totalHeight + LINES_WEIGHT * lines + HOLES_WEIGHT * holes
+                + BUMPINESS_WEIGHT * bumpiness;
+        return new Placement(descent, rotations, shift, cells, lines, score);
+    }
+
+    /**
+     * Helper method below turns the squares of a placed piece into a single number that doesn't depend on
+     * their order, so that the same placement reached in two different ways is only evaluated once.
+     */
+    private static long encode(int[] cells) {
+        int[] indices = new int[4];
+        for (int k = 0; k < 8; k += 2) {
+            indices[k / 2] = cells[k] * Constants.BOARD_COLUMNS + cells[k + 1];
+        }
+        Arrays.sort(indices);
+        long code = 0;
+        for (int index : indices) {
+            code = (code << 16) | index;
+        }
+        return code;
+    }
+
+    private static boolean canMove(byte[] board, int[] cells, int rowChange, int columnChange) {
+        for (int k = 0; k < 8; k += 2) {
+            if (board[(cells[k] + rowChange) * Constants.BOARD_COLUMNS + cells[k + 1] + columnChange] != Palette.EMPTY) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void move(int[] cells, int rowChange, int columnChange) {
+        for (int k = 0; k < 8; k += 2) {
+            cells[k] += rowChange;
+            cells[k + 1] += columnChange;
+        }
+    }
+
+    /**
+     * Helper method below rotates the piece the number of times passed in as a parameter, and returns
+     * whether all of those rotations were possible (if they weren't, the piece is left where it was).
+     */
+    private static boolean rotate(byte[] board, int[] cells, int rotations) {
+        int[] rotated = cells.clone();
+        for (int r = 0; r < rotations; r++) {
+            if (!rotateOnce(board, rotated)) {
+                return false;
+            }
+        }
+        System.arraycopy(rotated, 0, cells, 0, cells.length);
+        return true;
+    }
+
+    /**
+     * Helper method below rotates the piece around its first square like Piece.rotate, and returns whether
+     * the rotation was possible (if it wasn't, the piece isn't moved).
+     */
+    private static boolean rotateOnce(byte[] board, int[] cells) {
+        int centerRow = cells[0];
+        int centerColumn = cells[1];
+        for (int k = 0; k < 8; k += 2) {
+            int newRow = centerRow + centerColumn - cells[k + 1];
+            int newColumn = centerColumn - centerRow + cells[k];
+            if (newColumn <= 0 || newColumn >= Constants.BOARD_COLUMNS - 1
+                    || newRow <= 0 || newRow >= Constants.BOARD_ROWS - 1
+                    || board[newRow * Constants.BOARD_COLUMNS + newColumn] != Palette.EMPTY) {
+                return false;
+            }
+        }
+        for (int k = 0; k < 8; k += 2) {
+            int oldRow = cells[k];
+            cells[k] = centerRow + centerColumn - cells[k + 1];
+            cells[k + 1] = centerColumn - centerRow + oldRow;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,293 @@
+package tetris;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The PlacementRecorder class collects one record for every locked piece (tick, piece type, rotation,
+ * column, lines cleared, stack height, holes, and time since the piece was spawned) for balancing the
+ * game offline. Records are written into primitive arrays - one per column - of a preallocated chunk, so
+ * recording a placement never creates an object. Once a chunk is full it's handed over to a background
+ * thread that appends it to a gzip-compressed columnar file, and the game continues with an empty chunk
+ * from a small pool. If the writer falls so far behind that the pool is empty, the full chunk is thrown
+ * away (and counted) rather than making the game wait. If writing fails, the failure is kept and nothing
+ * more is recorded, so that the file ends at the last complete chunk instead of in the middle of one.
+ * Records are only ever taken and flushed on the thread running the game; the writer thread and the
+ * shutdown hook only touch the stream.
+ * The file starts with a magic number and a version, followed by chunks: each chunk is its record count
+ * and then every column stored contiguously. The main method converts such a file into CSV.
+ */
+public class PlacementRecorder {
+    private static final int MAGIC = 0x54504C43;
+    private static final int VERSION = 1;
+    private static final String CSV_HEADER = "tick,pieceType,rotation,column,linesCleared,stackHeight,holes,millisSinceSpawn";
+
+    private DataOutputStream out;
+    private ExecutorService writer;
+    private ArrayBlockingQueue<Chunk> freeChunks;
+    private Chunk active;
+    private AtomicLong droppedRecords;
+    private volatile boolean isClosed;
+    private AtomicBoolean isStreamClosed;
+    private volatile IOException failure;
+
+    /**
+     * Constructor below opens the file (path passed in as a parameter) and writes its header, creates the
+     * pool of chunks and the single background thread writing them. A shutdown hook makes sure that the
+     * chunks already handed over to the writer end up in the file when the program exits - the records of
+     * the active chunk are only written if the game calls the close method below first.
+     */
+    public PlacementRecorder(String path) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(path))));
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(VERSION);
+        this.writer = Executors.newSingleThreadExecutor((Runnable task) -> {
+            Thread thread = new Thread(task, "placement-recorder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.freeChunks = new ArrayBlockingQueue<>(Constants.ANALYTICS_CHUNK_POOL);
+        for (int i = 1; i < Constants.ANALYTICS_CHUNK_POOL; i++) {
+            this.freeChunks.add(new Chunk(Constants.ANALYTICS_CHUNK_SIZE));
+        }
+        this.active = new Chunk(Constants.ANALYTICS_CHUNK_SIZE);
+        this.droppedRecords = new AtomicLong(0);
+        this.isStreamClosed = new AtomicBoolean(false);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::closeStream, "placement-recorder-shutdown"));
+    }
+
+    /**
+     * Method below records a single placement by writing each value into its column of the active chunk.
+     * When the chunk becomes full, it's flushed. Values are stored in the smallest type that fits them.
+     */
+    public void record(int tick, int pieceType, int rotation, int column, int linesCleared,
+                       int stackHeight, int holes, int millisSinceSpawn) {
+        if (this.isClosed || this.failure != null) {
+            return;
+        }
+        Chunk chunk = this.active;
+        int i = chunk.size;
+        chunk.ticks[i] = tick;
+        chunk.pieceTypes[i] = (byte) pieceType;
+        chunk.rotations[i] = (byte) rotation;
+        chunk.columns[i] = (byte) column;
+        chunk.linesCleared[i] = (byte) linesCleared;
+        chunk.stackHeights[i] = (byte) stackHeight;
+        chunk.holes[i] = (short) holes;
+        chunk.millisSinceSpawn[i] = millisSinceSpawn;
+        chunk.size++;
+        if (chunk.size == chunk.ticks.length) {
+            this.flush();
+        }
+    }
+
+    /**
+     * Method below hands the active chunk (if it contains any records) over to the writer thread and takes
+     * an empty one from the pool. If there is no empty chunk available, the records of the active chunk are
+     * dropped instead, so that this method never blocks. It's called by the record method whenever a chunk
+     * is full, and can also be called f.e. once a game ends. Like the record method, it must only be called
+     * on the thread running the game.
+     */
+    public void flush() {
+        if (this.isClosed || this.failure != null || this.active.size == 0) {
+            return;
+        }
+        Chunk next = this.freeChunks.poll();
+        if (next == null) {
+            this.droppedRecords.addAndGet(this.active.size);
+            this.active.size = 0;
+            return;
+        }
+        Chunk full = this.active;
+        this.active = next;
+        try {
+            this.writer.execute(() -> this.write(full));
+        } catch (RejectedExecutionException e) {
+            this.droppedRecords.addAndGet(full.size);
+        }
+    }
+
+    /**
+     * Helper method below (running on the writer thread) appends a chunk to the file, column by column,
+     * and then returns the emptied chunk to the pool. Once writing has failed, later chunks are dropped.
+     */
+    private void write(Chunk chunk) {
+        if (this.failure != null) {
+            this.droppedRecords.addAndGet(chunk.size);
+            chunk.size = 0;
+            this.freeChunks.offer(chunk);
+            return;
+        }
+        try {
+            int size = chunk.size;
+            this.out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                this.out.writeInt(chunk.ticks[i]);
+            }
+            this.out.write(chunk.pieceTypes, 0, size);
+            this.out.write(chunk.rotations, 0, size);
+            this.out.write(chunk.columns, 0, size);
+            this.out.write(chunk.linesCleared, 0, size);
+            this.out.write(chunk.stackHeights, 0, size);
+            for (int i = 0; i < size; i++) {
+                this.out.writeShort(chunk.holes[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                this.out.writeInt(chunk.millisSinceSpawn[i]);
+            }
+        } catch (IOException e) {
+            this.failure = e;
+            this.droppedRecords.addAndGet(chunk.size);
+        }
+        chunk.size = 0;
+        this.freeChunks.offer(chunk);
+    }
+
+    /**
+     * Method below flushes the remaining records and closes the file (see closeStream below). It must be
+     * called on the thread running the game, since that's the only one that may touch the active chunk.
+     * Records passed in afterwards are ignored.
+     */
+    public void close() {
+        if (this.isClosed) {
+            return;
+        }
+        this.flush();
+        this.isClosed = true;
+        this.closeStream();
+    }
+
+    /**
+     * Helper method below waits for the writer thread to write everything that was handed over to it, and
+     * closes the file. It's called either by the close method above, or by the shutdown hook (if the game
+     * never closed the recorder) - whichever comes first; the second call does nothing.
+     */
+    private void closeStream() {
+        if (!this.isStreamClosed.compareAndSet(false, true)) {
+            return;
+        }
+        this.writer.shutdown();
+        try {
+            this.writer.awaitTermination(10, TimeUnit.SECONDS);
+            this.out.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            if (this.failure == null) {
+                this.failure = e;
+            }
+        }
+    }
+
+    /**
+     * Accessor methods below return the number of records that were thrown away (because the writer
+     * couldn't keep up, or because writing had failed), and the exception writing failed with (null if
+     * it hasn't).
+     */
+    public long getDroppedRecords() {
+        return this.droppedRecords.get();
+    }
+
+    public IOException getFailure() {
+        return this.failure;
+    }
+
+    /**
+     * Method below converts a file written by a PlacementRecorder (first path passed in as a parameter)
+     * into a CSV file with one line per placement (second path).
+     */
+    public static void convertToCsv(String inputPath, String outputPath) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(inputPath))));
+             PrintWriter csv = new PrintWriter(new BufferedOutputStream(new FileOutputStream(outputPath)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a placement file: " + inputPath);
+            }
+            csv.println(CSV_HEADER);
+            Chunk chunk = new Chunk(0);
+            while (true) {
+                int size;
+                try {
+                    size = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (chunk.ticks.length < size) {
+                    chunk = new Chunk(size);
+                }
+                for (int i = 0; i < size; i++) {
+                    chunk.ticks[i] = in.readInt();
+                }
+                in.readFully(chunk.pieceTypes, 0, size);
+                in.readFully(chunk.rotations, 0, size);
+                in.readFully(chunk.columns, 0, size);
+                in.readFully(chunk.linesCleared, 0, size);
+                in.readFully(chunk.stackHeights, 0, size);
+                for (int i = 0; i < size; i++) {
+                    chunk.holes[i] = in.readShort();
+                }
+                for (int i = 0; i < size; i++) {
+                    chunk.millisSinceSpawn[i] = in.readInt();
+                }
+                for (int i = 0; i < size; i++) {
+                    csv.println(chunk.ticks[i] + "," + chunk.pieceTypes[i] + "," + chunk.rotations[i] + ","
+                            + chunk.columns[i] + "," + chunk.linesCleared[i] + "," + chunk.stackHeights[i] + ","
+                            + chunk.holes[i] + "," + chunk.millisSinceSpawn[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Here is the mainline of the CSV converter: java tetris.PlacementRecorder placements.bin placements.csv
+     */
+    public static void main(String[] argv) throws IOException {
+        if (argv.length != 2) {
+            System.err.println("usage: PlacementRecorder <placement file> <csv file>");
+            System.exit(1);
+        }
+        convertToCsv(argv[0], argv[1]);
+    }
+
+    /**
+     * The Chunk class holds the columns of up to a fixed number of records, along with the number of
+     * records currently stored in it.
+     */
+    private static class Chunk {
+        private int[] ticks;
+        private byte[] pieceTypes;
+        private byte[] rotations;
+        private byte[] columns;
+        private byte[] linesCleared;
+        private byte[] stackHeights;
+        private short[] holes;
+        private int[] millisSinceSpawn;
+        private int size;
+
+        private Chunk(int capacity) {
+            this.ticks = new int[capacity];
+            this.pieceTypes = new byte[capacity];
+            this.rotations = new byte[capacity];
+            this.columns = new byte[capacity];
+            this.linesCleared = new byte[capacity];
+            this.stackHeights = new byte[capacity];
+            this.holes = new short[capacity];
+            this.millisSinceSpawn = new int[capacity];
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package tetris;
+
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.Pane;
+
+import java.util.Random;
+
+/**
+ * The ReferenceEngine class lets the DifferentialFuzzer play the actual Game - a Game without a timeline is
+ * created on a Pane that's never shown, ticks call its update method, and every other input is passed in
+ * as the same KeyEvent the player's key press would produce. Whatever the Game and Piece classes do is,
+ * by definition, the correct behavior other engines are compared against.
+ */
+public class ReferenceEngine implements TetrisEngine {
+    private static final KeyCode[] KEYS = {null, KeyCode.LEFT, KeyCode.RIGHT, KeyCode.DOWN, KeyCode.SPACE, KeyCode.UP};
+
+    private Game game;
+
+    @Override
+    public void reset(long seed) {
+        this.game = new Game(new Pane(), new Random(seed));
+    }
+
+    @Override
+    public void apply(int input) {
+        if (input == TICK) {
+            this.game.update();
+        } else {
+            this.game.onKeyPress(new KeyEvent(KeyEvent.KEY_PRESSED, "", "", KEYS[input], false, false, false, false));
+        }
+    }
+
+    @Override
+    public void copyState(byte[] board, int[] pieceCells) {
+        System.arraycopy(this.game.getBoard(), 0, board, 0, board.length);
+        this.game.getPiece().getCells(pieceCells);
+    }
+
+    @Override
+    public boolean isOver() {
+        return this.game.isItOver();
+    }
+}
@@ -0,0 +1,74 @@
+package tetris;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * The StartupTimer class records how long the phases of starting the game take, measured from the moment
+ * the JVM was started. Each phase is recorded only the first time it's marked, so marking it again later
+ * (f.e. on every key press) costs nothing. Once the first input has been handled, all recorded phases are
+ * printed out, so that startup times can be tracked over time.
+ * All phases are marked on the FX thread. Marking a phase only reads the clock - the JVM's start time (which
+ * takes tens of milliseconds to look up the first time) is only looked up once the times are reported, after
+ * the first input, so that measuring startup doesn't slow it down.
+ */
+public class StartupTimer {
+
+    /**
+     * The phases of starting the game, in the order they happen.
+     */
+    public enum Phase {
+        START_CALLED,
+        STAGE_SHOWN,
+        BOARD_BUILT,
+        FIRST_FRAME,
+        FIRST_INPUT_HANDLED
+    }
+
+    private static long[] markedAt = new long[Phase.values().length];
+    private static boolean[] isMarked = new boolean[Phase.values().length];
+    private static long jvmStartTime = -1;
+
+    /**
+     * Method below records the current time for the phase passed in as a parameter, unless that phase has
+     * already been recorded. When the last phase is recorded, all of them are printed out.
+     */
+    public static void mark(Phase phase) {
+        if (isMarked[phase.ordinal()]) {
+            return;
+        }
+        isMarked[phase.ordinal()] = true;
+        markedAt[phase.ordinal()] = System.currentTimeMillis();
+        if (phase == Phase.FIRST_INPUT_HANDLED) {
+            System.out.println(report());
+        }
+    }
+
+    /**
+     * Method below returns the recorded phases as one line of text (f.e. "startup ms: START_CALLED=310
+     * STAGE_SHOWN=402 ..."), skipping phases that haven't been recorded.
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder("startup ms:");
+        for (Phase phase : Phase.values()) {
+            if (isMarked[phase.ordinal()]) {
+                report.append(' ').append(phase).append('=').append(getMillis(phase));
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Method below returns the number of milliseconds between the JVM being started and the phase passed in
+     * as a parameter being recorded, or -1 if it hasn't been recorded. The JVM's start time is looked up the
+     * first time this method is called, and remembered.
+     */
+    public static long getMillis(Phase phase) {
+        if (!isMarked[phase.ordinal()]) {
+            return -1;
+        }
+        if (jvmStartTime < 0) {
+            jvmStartTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+        }
+        return markedAt[phase.ordinal()] - jvmStartTime;
+    }
+}
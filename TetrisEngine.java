@@ -0,0 +1,36 @@
+package tetris;
+
+/**
+ * Interface implemented by everything that can play the game without showing it - the ReferenceEngine
+ * (the Game and Piece classes themselves) and faster reimplementations of the same rules, such as the
+ * CompactEngine. The DifferentialFuzzer feeds the same inputs to two engines and compares their states.
+ */
+public interface TetrisEngine {
+
+    // inputs an engine can be given: one tick of the timeline, or one of the keys moving the piece
+    int TICK = 0;
+    int LEFT = 1;
+    int RIGHT = 2;
+    int DOWN = 3;
+    int DROP = 4;
+    int ROTATE = 5;
+    int INPUT_COUNT = 6;
+
+    /**
+     * Starts a new game, choosing pieces with a Random seeded with the seed passed in as a parameter.
+     */
+    void reset(long seed);
+
+    /**
+     * Applies a single input (one of the constants above) to the game.
+     */
+    void apply(int input);
+
+    /**
+     * Copies the board (palette indices, row after row) into the first array, and the row and column of
+     * each square of the falling piece into the second one (row of square i at index 2 * i, column at 2 * i + 1).
+     */
+    void copyState(byte[] board, int[] pieceCells);
+
+    boolean isOver();
+}
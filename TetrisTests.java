@@ -2,8 +2,20 @@ package tetris;
 
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -32,16 +44,10 @@ public class TetrisTests {
     public void testBoard(){
         // TODO: write a test here to a test that tests your board
         Pane gamePane = new Pane();
-        BoardSquare[][] board = new BoardSquare[22][12];
         Game game = new Game(gamePane);
-        for (int i = 0; i < 22; i++) {
-            for (int j = 0; j < 12; j++) {
-                BoardSquare square = new BoardSquare(gamePane, Color.BLACK);
-                board[i][j] = square;
-                square.addToPane(gamePane);
-            }
+        for (int i = 1; i < Constants.BOARD_ROWS - 1; i++) {
+            assertTrue(!game.isRowFull(i));
         }
-        assertTrue(!game.isRowFull(board[0]));
     }
 
     /**
@@ -52,17 +58,194 @@ public class TetrisTests {
         // TODO: write a test here so that it tests one of your wrapper classes (a piece for example)
         Pane gamePane = new Pane();
         Game game = new Game(gamePane);
-        BoardSquare[][] board = new BoardSquare[22][12];
-        for (int i = 0; i < 22; i++) {
-            for (int j = 0; j < 12; j++) {
-                BoardSquare square = new BoardSquare(gamePane, Color.BLACK);
-                board[i][j] = square;
-                square.addToPane(gamePane);
-            }
-        }
+        byte[] board = new byte[Constants.BOARD_ROWS * Constants.BOARD_COLUMNS];
 
-        Piece piece = new Piece(game, gamePane, Constants.I_PIECE_COORDS, Constants.I_PIECE_COLOR, board);
+        Piece piece = new Piece(game, gamePane, Constants.I_PIECE_COORDS, Palette.I_PIECE, board);
         piece.move(1,1);
         assertTrue(piece.canItMove(1,0));
     }
+
+    /**
+     * Tests that changing the theme only recolors the squares (the palette indices of the board stay the
+     * same), and that drawing the board only recolors squares whose palette index has changed.
+     */
+    @Test
+    public void testTheme() {
+        Pane pane = new Pane();
+        Game game = new Game(pane, new Random(3));
+        byte[] before = game.getBoard().clone();
+        Rectangle border = (Rectangle) pane.getChildren().get(0);
+        Rectangle empty = (Rectangle) pane.getChildren().get(Constants.BOARD_COLUMNS + 1);
+
+        game.setTheme(Theme.HIGH_CONTRAST);
+        assertTrue(Arrays.equals(before, game.getBoard()));
+        assertTrue(border.getFill().equals(Theme.HIGH_CONTRAST.getColor(Palette.BORDER)));
+        assertTrue(empty.getFill().equals(Theme.HIGH_CONTRAST.getColor(Palette.EMPTY)));
+
+        int changed = 20 * Constants.BOARD_COLUMNS + 3;
+        Rectangle changedSquare = (Rectangle) pane.getChildren().get(changed);
+        game.getBoard()[changed] = Palette.GARBAGE;
+        empty.setFill(Color.PINK);
+        game.drawBoard();
+        assertTrue(changedSquare.getFill().equals(Theme.HIGH_CONTRAST.getColor(Palette.GARBAGE)));
+        assertTrue(empty.getFill().equals(Color.PINK));
+    }
+
+    /**
+     * Tests that the board history only copies rows that changed between placements, that rewinding
+     * restores the colors of the board from before the last placement, and that undoing a placement in a
+     * game gives back the piece that was placed rather than a new one, even once the game has ended.
+     */
+    @Test
+    public void testBoardHistory() {
+        byte[] board = new byte[Constants.BOARD_ROWS * Constants.BOARD_COLUMNS];
+        BoardHistory history = new BoardHistory(Constants.HISTORY_CAPACITY);
+        BoardSnapshot first = history.record(board, Palette.EMPTY, 0, 0, 0);
+
+        board[20 * Constants.BOARD_COLUMNS + 3] = Palette.I_PIECE;
+        BoardSnapshot second = history.record(board, Palette.I_PIECE, 1, 0, 21);
+        assertTrue(second.sharesRow(first, 0));
+        assertFalse(second.sharesRow(first, 20));
+        assertTrue(history.get(1) == first);
+
+        history.rewind(1).restore(board, second);
+        assertTrue(board[20 * Constants.BOARD_COLUMNS + 3] == Palette.EMPTY);
+        assertTrue(history.size() == 1);
+
+        Game game = new Game(new Pane(), new Random(7));
+        byte placedPiece = game.getPiece().getColorIndex();
+        BoardSnapshot start = game.getBoardSnapshot();
+        while (game.getBoardSnapshot() == start) {
+            game.update();
+        }
+        game.rewind(1);
+        assertTrue(game.getBoardSnapshot() == start);
+        assertTrue(game.getPiece().getColorIndex() == placedPiece);
+
+        while (!game.isItOver()) {
+            game.update();
+        }
+        game.rewind(1);
+        assertFalse(game.isItOver());
+        assertFalse(game.hasGameEnded());
+    }
+
+    /**
+     * Tests that the event bus hands events over to a subscriber on its own executor, and that a
+     * subscriber that doesn't keep up is lapped - it skips ahead and counts what it missed - without
+     * blocking the publisher or making any other subscriber miss events.
+     */
+    @Test
+    public void testEventBus() throws InterruptedException {
+        GameEventBus bus = new GameEventBus(4);
+        CountDownLatch delivered = new CountDownLatch(1);
+        List<Runnable> stalled = new ArrayList<>();
+        bus.subscribe(Executors.newSingleThreadExecutor(), (GameEvent event) -> {
+            if (event.getType() == GameEvent.Type.LINES_CLEARED && event.getLineCount() == 2) {
+                delivered.countDown();
+            }
+        });
+        bus.publish(GameEvent.Type.LINES_CLEARED, 0, 2, 0b110, 0);
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+
+        List<Integer> received = new ArrayList<>();
+        GameEventBus.Subscription lagging = bus.subscribe((Runnable task) -> stalled.add(task),
+                (GameEvent event) -> received.add(event.getPieceType()));
+        List<Integer> kept = new ArrayList<>();
+        GameEventBus.Subscription keeping = bus.subscribe(Runnable::run,
+                (GameEvent event) -> kept.add(event.getPieceType()));
+        for (int i = 0; i < 6; i++) {
+            bus.publish(GameEvent.Type.PIECE_SPAWNED, i, 0, 0, 0);
+        }
+        stalled.get(0).run();
+        assertTrue(kept.equals(List.of(0, 1, 2, 3, 4, 5)));
+        assertTrue(received.equals(List.of(3, 4, 5)));
+        assertTrue(lagging.getDroppedCount() == 3);
+        assertTrue(keeping.getDroppedCount() == 0);
+    }
+
+    /**
+     * Tests that placements written by the PlacementRecorder can be read back through the CSV converter.
+     */
+    @Test
+    public void testPlacementRecorder() throws IOException {
+        File placements = File.createTempFile("placements", ".bin");
+        File csv = File.createTempFile("placements", ".csv");
+        placements.deleteOnExit();
+        csv.deleteOnExit();
+
+        PlacementRecorder recorder = new PlacementRecorder(placements.getPath());
+        recorder.record(12, 3, 1, 4, 2, 5, 1, 900);
+        recorder.record(20, 0, 0, 1, 0, 5, 1, 300);
+        recorder.close();
+        assertTrue(recorder.getFailure() == null && recorder.getDroppedRecords() == 0);
+        PlacementRecorder.convertToCsv(placements.getPath(), csv.getPath());
+
+        List<String> lines = Files.readAllLines(csv.toPath());
+        assertTrue(lines.size() == 3);
+        assertTrue(lines.get(1).equals("12,3,1,4,2,5,1,900"));
+    }
+
+    /**
+     * Tests that the CompactEngine plays exactly like the actual Game on a few hundred generated input sequences,
+     * and that those sequences play long enough for line clears to be compared as well.
+     */
+    @Test
+    public void testCompactEngineMatchesGame() throws Exception {
+        DifferentialFuzzer fuzzer = new DifferentialFuzzer(ReferenceEngine::new, CompactEngine::new);
+        DifferentialFuzzer.Failure failure = fuzzer.fuzz(2024, 200, 2000, 2);
+        assertTrue(String.valueOf(failure), failure == null);
+        assertTrue(fuzzer.getLineClearsCompared() > 200);
+    }
+
+    /**
+     * Tests that the placement cache finds the placement clearing a line, answers the same board from
+     * memory the second time, evicts the least recently used board rather than the oldest one, and that
+     * the AI's inputs, applied to an engine, really put every piece of a game on its chosen placement.
+     */
+    @Test
+    public void testPlacementCache() {
+        CompactEngine engine = new CompactEngine();
+        engine.reset(1);
+        byte[] board = new byte[Constants.BOARD_ROWS * Constants.BOARD_COLUMNS];
+        int[] cells = new int[8];
+        engine.copyState(board, cells);
+        byte colorIndex = Palette.I_PIECE;
+        for (int j = 1; j < Constants.BOARD_COLUMNS - 1; j++) {
+            if (j != 4) {
+                board[20 * Constants.BOARD_COLUMNS + j] = Palette.GARBAGE;
+            }
+        }
+
+        PlacementCache cache = new PlacementCache(2);
+        Placement best = cache.getBestPlacement(board, colorIndex);
+        assertTrue(best.getLinesCleared() == 1);
+        assertTrue(cache.getBestPlacement(board.clone(), colorIndex) == best);
+        assertTrue(cache.getHits() == 1 && cache.getMisses() == 1);
+
+        for (int k = 0; k < 8; k += 2) {
+            assertTrue(best.getCells()[k + 1] == 4);
+        }
+
+        byte[] other = board.clone();
+        other[19 * Constants.BOARD_COLUMNS + 1] = Palette.GARBAGE;
+        byte[] third = board.clone();
+        third[19 * Constants.BOARD_COLUMNS + 10] = Palette.GARBAGE;
+        cache.getBestPlacement(other, colorIndex);
+        cache.getBestPlacement(board, colorIndex);
+        cache.getBestPlacement(third, colorIndex);
+        assertTrue(cache.getEvictions() == 1 && cache.getBestPlacement(board, colorIndex) == best);
+
+        AiPlayer player = new AiPlayer(AiPlayer.Difficulty.HARD, new Random(1));
+        for (int piece = 0; piece < 40 && !engine.isOver(); piece++) {
+            engine.copyState(board, cells);
+            Placement placement = player.choosePlacement(board, engine.getColorIndex());
+            for (int input : AiPlayer.inputsFor(placement)) {
+                engine.apply(input);
+            }
+            engine.copyState(board, cells);
+            assertTrue(Arrays.equals(cells, placement.getCells()));
+            engine.apply(TetrisEngine.TICK);
+        }
+    }
 }
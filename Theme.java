@@ -0,0 +1,37 @@
+package tetris;
+
+import javafx.scene.paint.Color;
+
+/**
+ * The Theme class maps the palette indices the board is stored with (see the Palette class) to the colors
+ * they're drawn with. Since the game logic never looks at colors, the color scheme can be changed at any
+ * time by giving the Game (or the TournamentWall) a different theme.
+ */
+public class Theme {
+
+    public static final Theme CLASSIC = new Theme(new Color[]{Color.BLACK, Color.GREY, Color.DIMGREY,
+            Constants.O_PIECE_COLOR, Constants.S_PIECE_COLOR, Constants.Z_PIECE_COLOR, Constants.L_PIECE_COLOR,
+            Constants.J_PIECE_COLOR, Constants.I_PIECE_COLOR, Constants.T_PIECE_COLOR});
+
+    public static final Theme HIGH_CONTRAST = new Theme(new Color[]{Color.WHITE, Color.BLACK, Color.DARKGREY,
+            Color.GOLD, Color.LIMEGREEN, Color.RED, Color.ORANGE, Color.BLUE, Color.CYAN, Color.PURPLE});
+
+    private Color[] colors;
+
+    /**
+     * Constructor below takes in the colors of the theme, ordered by palette index.
+     */
+    public Theme(Color[] colors) {
+        if (colors.length != Palette.SIZE) {
+            throw new IllegalArgumentException("A theme needs " + Palette.SIZE + " colors");
+        }
+        this.colors = colors.clone();
+    }
+
+    /**
+     * Method below returns the color a particular palette index is drawn with.
+     */
+    public Color getColor(byte index) {
+        return this.colors[index];
+    }
+}
@@ -0,0 +1,258 @@
+package tetris;
+
+import javafx.animation.AnimationTimer;
+import javafx.beans.Observable;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Scale;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The TournamentWall class shows many games running at the same time in one window. Rather than adding
+ * the BoardSquares of every game to the scene (over 260 Rectangles per board), all boards are drawn
+ * into a single Canvas, copying small colored tiles from one shared atlas image. An AnimationTimer checks
+ * every board once per frame and redraws only what changed since it was last drawn: rows of the board
+ * snapshot that aren't shared with the previously drawn snapshot, and the squares of the falling piece.
+ * Boards where nothing changed cost nothing. The atlas holds one tile per palette index, drawn in the
+ * colors of the wall's Theme.
+ * The games are handed over by the caller as CompactEngines (so they play by the Game's rules, but without
+ * any BoardSquares, timeline, history, event bus or analytics), each together with the AiPlayer playing
+ * it. On every frame, each player makes one move of its game. Boards are laid out in as many columns as it
+ * takes for the whole wall to be roughly as wide as a landscape window, and the canvas is scaled to fit the
+ * window whenever it's resized.
+ */
+public class TournamentWall {
+    private Pane root;
+    private Canvas canvas;
+    private Image atlas;
+    private List<WallBoard> boards;
+    private Scale scale;
+
+    /**
+     * Constructor below takes the engines (already reset) and the players passed in as parameters - the
+     * player at a particular index plays the engine at the same index. It creates a canvas big enough to fit
+     * all of their boards and the tile atlas, makes the canvas follow the size of the root pane, and starts
+     * the timer moving the games and redrawing the boards. It has to be called on the FX thread.
+     */
+    public TournamentWall(List<CompactEngine> engines, List<AiPlayer> players) {
+        int numberOfGames = engines.size();
+        int cellWidth = Constants.BOARD_COLUMNS * Constants.WALL_SQUARE_WIDTH + Constants.WALL_BOARD_GAP;
+        int cellHeight = Constants.BOARD_ROWS * Constants.WALL_SQUARE_WIDTH + Constants.WALL_BOARD_GAP;
+        int columns = (int) Math.ceil(Math.sqrt(numberOfGames * Constants.WALL_ASPECT_RATIO * cellHeight / cellWidth));
+        columns = Math.max(1, Math.min(numberOfGames, columns));
+        int rows = (numberOfGames + columns - 1) / columns;
+
+        this.canvas = new Canvas(columns * cellWidth + Constants.WALL_BOARD_GAP,
+                rows * cellHeight + Constants.WALL_BOARD_GAP);
+        this.scale = new Scale(1, 1, 0, 0);
+        this.canvas.getTransforms().add(this.scale);
+        this.root = new Pane(this.canvas);
+        this.root.setStyle("-fx-background-color: #F1F1F1;");
+        this.root.widthProperty().addListener((Observable observable) -> this.fitToRoot());
+        this.root.heightProperty().addListener((Observable observable) -> this.fitToRoot());
+        this.atlas = this.createAtlas(Theme.CLASSIC);
+
+        this.boards = new ArrayList<>();
+        for (int i = 0; i < numberOfGames; i++) {
+            int x = Constants.WALL_BOARD_GAP + (i % columns) * cellWidth;
+            int y = Constants.WALL_BOARD_GAP + (i / columns) * cellHeight;
+            this.boards.add(new WallBoard(engines.get(i), players.get(i), x, y));
+        }
+
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                TournamentWall.this.moveGames();
+                TournamentWall.this.drawChangedBoards();
+            }
+        }.start();
+    }
+
+    /**
+     * Helper method below scales the canvas (keeping its proportions) so that it fits into the root pane.
+     */
+    private void fitToRoot() {
+        double factor = Math.min(this.root.getWidth() / this.canvas.getWidth(),
+                this.root.getHeight() / this.canvas.getHeight());
+        if (factor > 0) {
+            this.scale.setX(factor);
+            this.scale.setY(factor);
+        }
+    }
+
+    /**
+     * Method below is called once per frame, and lets every player whose game hasn't ended make one move.
+     * Once a piece has been spawned, its player chooses a placement for it, and the inputs getting the piece
+     * there are then applied one per frame. After the last one (the drop), the game is ticked so that the
+     * piece locks and the next one is spawned. If a piece can't be placed anywhere, the game is just ticked.
+     */
+    private void moveGames() {
+        for (WallBoard board : this.boards) {
+            if (board.engine.isOver()) {
+                continue;
+            }
+            if (board.inputs == null) {
+                Placement placement = board.player.choosePlacement(board.engine.getBoard(),
+                        board.engine.getColorIndex());
+                if (placement == null) {
+                    board.engine.apply(TetrisEngine.TICK);
+                    continue;
+                }
+                board.inputs = AiPlayer.inputsFor(placement);
+                board.nextInput = 0;
+            }
+            if (board.nextInput < board.inputs.length) {
+                board.engine.apply(board.inputs[board.nextInput]);
+                board.nextInput++;
+            } else {
+                board.engine.apply(TetrisEngine.TICK);
+                board.inputs = null;
+            }
+        }
+    }
+
+    /**
+     * Helper method below draws one tile for every palette index (in the color the theme passed in as
+     * a parameter gives it) next to each other on a scratch canvas, and takes a snapshot of it - that image
+     * is the atlas all boards are drawn from.
+     */
+    private Image createAtlas(Theme theme) {
+        int width = Constants.WALL_SQUARE_WIDTH;
+        Canvas scratch = new Canvas(Palette.SIZE * width, width);
+        GraphicsContext gc = scratch.getGraphicsContext2D();
+        for (int i = 0; i < Palette.SIZE; i++) {
+            gc.setFill(Color.BLACK);
+            gc.fillRect(i * width, 0, width, width);
+            gc.setFill(theme.getColor((byte) i));
+            gc.fillRect(i * width, 0, width - 1, width - 1);
+        }
+        return scratch.snapshot(null, null);
+    }
+
+    /**
+     * Method below changes the theme the wall is drawn with (passed in as a parameter) by creating a new
+     * atlas, and makes every board be drawn again from scratch on the next frame.
+     */
+    public void setTheme(Theme theme) {
+        this.atlas = this.createAtlas(theme);
+        for (WallBoard board : this.boards) {
+            board.drawnSnapshot = null;
+        }
+    }
+
+    /**
+     * Method below is called once per frame. It loops through all boards and redraws the changed parts of
+     * each of them: first, the rows whose snapshot changed, and then the falling piece - the squares where
+     * it was drawn before are restored from the board (unless they were already redrawn with their row),
+     * and the piece is drawn at its current location.
+     */
+    private void drawChangedBoards() {
+        GraphicsContext gc = this.canvas.getGraphicsContext2D();
+        for (WallBoard board : this.boards) {
+            BoardSnapshot snapshot = board.engine.getBoardSnapshot();
+            board.engine.getCells(board.pieceCells);
+            boolean boardChanged = snapshot != board.drawnSnapshot;
+            if (!boardChanged && board.hasPieceAt(board.pieceCells)) {
+                continue;
+            }
+            int redrawnRows = 0;
+            if (boardChanged) {
+                for (int i = 0; i < Constants.BOARD_ROWS; i++) {
+                    if (!snapshot.sharesRow(board.drawnSnapshot, i)) {
+                        redrawnRows |= 1 << i;
+                        for (int j = 0; j < Constants.BOARD_COLUMNS; j++) {
+                            this.drawTile(gc, board, i, j, snapshot.getColorIndex(i, j));
+                        }
+                    }
+                }
+            }
+            for (int k = 0; k < board.drawnCells.length; k += 2) {
+                int row = board.drawnCells[k];
+                if (row >= 0 && (redrawnRows & (1 << row)) == 0) {
+                    int column = board.drawnCells[k + 1];
+                    this.drawTile(gc, board, row, column, snapshot.getColorIndex(row, column));
+                }
+            }
+            byte pieceColorIndex = board.engine.getColorIndex();
+            for (int k = 0; k < board.pieceCells.length; k += 2) {
+                this.drawTile(gc, board, board.pieceCells[k], board.pieceCells[k + 1], pieceColorIndex);
+            }
+            System.arraycopy(board.pieceCells, 0, board.drawnCells, 0, board.pieceCells.length);
+            board.drawnSnapshot = snapshot;
+        }
+    }
+
+    /**
+     * Helper method below copies the tile of the palette index passed in as a parameter from the atlas to
+     * the location of a particular square of a particular board.
+     */
+    private void drawTile(GraphicsContext gc, WallBoard board, int row, int column, byte colorIndex) {
+        int width = Constants.WALL_SQUARE_WIDTH;
+        gc.drawImage(this.atlas, colorIndex * width, 0, width, width,
+                board.x + column * width, board.y + row * width, width, width);
+    }
+
+    /**
+     * Accessor method below returns the root pane, so that it can be passed into the Scene's constructor.
+     */
+    public Pane getRoot() {
+        return this.root;
+    }
+
+    /**
+     * Accessor methods below return the size of the whole wall before it's scaled - the App uses them to
+     * decide how big the window should be.
+     */
+    public double getWidth() {
+        return this.canvas.getWidth();
+    }
+
+    public double getHeight() {
+        return this.canvas.getHeight();
+    }
+
+    /**
+     * The WallBoard class keeps track of one game on the wall: its engine and player, the inputs the player
+     * is applying to the falling piece (null if it hasn't chosen them yet), where its board is drawn, which
+     * snapshot was drawn last, and where the falling piece was drawn last (rows of -1 mean nothing was
+     * drawn yet).
+     */
+    private static class WallBoard {
+        private CompactEngine engine;
+        private AiPlayer player;
+        private int[] inputs;
+        private int nextInput;
+        private int x;
+        private int y;
+        private BoardSnapshot drawnSnapshot;
+        private int[] drawnCells;
+        private int[] pieceCells;
+
+        private WallBoard(CompactEngine engine, AiPlayer player, int x, int y) {
+            this.engine = engine;
+            this.player = player;
+            this.x = x;
+            this.y = y;
+            this.drawnCells = new int[]{-1, -1, -1, -1, -1, -1, -1, -1};
+            this.pieceCells = new int[8];
+        }
+
+        /**
+         * Method below checks whether the falling piece was last drawn exactly at the cells passed in as
+         * a parameter.
+         */
+        private boolean hasPieceAt(int[] cells) {
+            for (int k = 0; k < cells.length; k++) {
+                if (this.drawnCells[k] != cells[k]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}